@@ -0,0 +1,92 @@
+package com.devexed.naturalsort;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generated strings resembling the inputs natural sorting is typically used for.
+ */
+public enum Dataset {
+
+    FILE_NAMES {
+        @Override
+        String generate(Random random, Locale locale) {
+            String[] prefixes = {"IMG_", "scan ", "report-", "Track ", "chapter"};
+            String[] extensions = {".jpg", ".pdf", ".txt", ".mp3", ""};
+            return prefixes[random.nextInt(prefixes.length)] + random.nextInt(10000)
+                    + extensions[random.nextInt(extensions.length)];
+        }
+    },
+
+    VERSIONS {
+        @Override
+        String generate(Random random, Locale locale) {
+            return "v" + random.nextInt(20) + "." + random.nextInt(50) + "." + random.nextInt(200)
+                    + (random.nextInt(4) == 0 ? "-rc" + random.nextInt(5) : "");
+        }
+    },
+
+    ADDRESSES {
+        @Override
+        String generate(Random random, Locale locale) {
+            String[] streets = {"Main Street", "Elm Street", "Harbour Road", "Kings Avenue", "Mill Lane"};
+            return random.nextInt(2000) + " " + streets[random.nextInt(streets.length)]
+                    + ", Apt " + random.nextInt(40) + ", " + (10000 + random.nextInt(90000));
+        }
+    },
+
+    NUMBERS {
+        @Override
+        String generate(Random random, Locale locale) {
+            DecimalFormat format = new DecimalFormat("#,##0.###", new DecimalFormatSymbols(locale));
+            return format.format((random.nextDouble() - 0.5) * 2000000);
+        }
+    },
+
+    TEXT {
+        @Override
+        String generate(Random random, Locale locale) {
+            String[] words = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit"};
+            StringBuilder text = new StringBuilder();
+
+            for (int i = 0; i < 12; i++) {
+                if (i > 0) text.append(' ');
+                text.append(words[random.nextInt(words.length)]);
+            }
+
+            return text.toString();
+        }
+    },
+
+    NON_LATIN_DIGITS {
+        @Override
+        String generate(Random random, Locale locale) {
+            // Arabic-Indic, Devanagari and fullwidth digits.
+            char[] zeros = {'\u0660', '\u0966', '\uFF10'};
+            char zero = zeros[random.nextInt(zeros.length)];
+            String number = Integer.toString(random.nextInt(100000));
+            StringBuilder text = new StringBuilder("item ");
+
+            for (int i = 0; i < number.length(); i++) {
+                text.append((char) (zero + number.charAt(i) - '0'));
+            }
+
+            return text.toString();
+        }
+    };
+
+    abstract String generate(Random random, Locale locale);
+
+    /**
+     * Generate the same strings for the same seed.
+     */
+    String[] generate(int count, long seed, Locale locale) {
+        Random random = new Random(seed);
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) strings[i] = generate(random, locale);
+        return strings;
+    }
+
+}
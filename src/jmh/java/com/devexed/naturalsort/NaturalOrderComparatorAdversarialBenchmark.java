@@ -0,0 +1,155 @@
+package com.devexed.naturalsort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of comparing pairs of long strings shaped to stress the scanner, like user supplied strings sent to a sort
+ * endpoint. The strings of a pair only differ at their end, so both are scanned whole. Comparisons take time linear in
+ * the length of the strings, so the time per operation should grow tenfold with each tenfold length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NaturalOrderComparatorAdversarialBenchmark {
+
+    public enum Input {
+
+        // One huge grouped number, e.g. "1,1,1,1,...".
+        GROUPED_DIGITS {
+            @Override
+            String[] generate(int length) {
+                String digits = repeat("1,", length);
+                return new String[] { digits + "1", digits + "2" };
+            }
+        },
+
+        // One number with a huge run of leading zeros.
+        LEADING_ZEROS {
+            @Override
+            String[] generate(int length) {
+                String zeros = repeat("0", length);
+                return new String[] { zeros + "1", zeros + "2" };
+            }
+        },
+
+        // Many short numbers separated by decimal separators, e.g. "1.1.1.1...".
+        DECIMAL_SEPARATORS {
+            @Override
+            String[] generate(int length) {
+                String numbers = repeat("1.", length);
+                return new String[] { numbers + "1", numbers + "2" };
+            }
+        },
+
+        // Many negative numbers, e.g. "-1-1-1...".
+        MINUS_SIGNS {
+            @Override
+            String[] generate(int length) {
+                String numbers = repeat("-1", length);
+                return new String[] { numbers + "a", numbers + "b" };
+            }
+        },
+
+        // Numbers separated by whitespace, which are grouped numbers where the grouping separator is whitespace.
+        SPACED_DIGITS {
+            @Override
+            String[] generate(int length) {
+                String digits = repeat("1 ", length);
+                return new String[] { digits + "1", digits + "2" };
+            }
+        },
+
+        // One huge run of whitespace within text.
+        WHITESPACE_RUN {
+            @Override
+            String[] generate(int length) {
+                String whitespace = repeat(" \t", length);
+                return new String[] { "a" + whitespace + "a", "a" + whitespace + "b" };
+            }
+        },
+
+        // Many short runs of whitespace within text, differently long in each string.
+        WHITESPACE_RUNS {
+            @Override
+            String[] generate(int length) {
+                return new String[] { repeat("a ", length) + "a", repeat("a  ", length) + "b" };
+            }
+        },
+
+        // Text without any numbers.
+        PLAIN_TEXT {
+            @Override
+            String[] generate(int length) {
+                String text = repeat("abc", length);
+                return new String[] { text + "a", text + "b" };
+            }
+        };
+
+        abstract String[] generate(int length);
+
+        private static String repeat(String s, int length) {
+            StringBuilder repeated = new StringBuilder(length + s.length());
+            while (repeated.length() < length) repeated.append(s);
+            return repeated.toString();
+        }
+
+    }
+
+    @Param({"en", "fr"})
+    public String locale;
+
+    @Param
+    public Input input;
+
+    @Param({"1000", "10000", "100000"})
+    public int length;
+
+    private NaturalOrderComparator<String> comparator;
+    private String lhs;
+    private String rhs;
+
+    @Setup
+    public void setUp() {
+        comparator = new NaturalOrderComparator<String>(Locale.forLanguageTag(locale));
+        String[] pair = input.generate(length);
+        lhs = pair[0];
+        rhs = pair[1];
+    }
+
+    @Benchmark
+    public int compare() {
+        return comparator.compare(lhs, rhs);
+    }
+
+    @Benchmark
+    public int comparePrepared() {
+        return comparator.prepare(lhs).compareTo(rhs);
+    }
+
+    @Benchmark
+    public long naturalHash() {
+        return comparator.naturalHash(lhs);
+    }
+
+    @Benchmark
+    public NaturalSortKey getSortKey() {
+        return comparator.getSortKey(lhs);
+    }
+
+}
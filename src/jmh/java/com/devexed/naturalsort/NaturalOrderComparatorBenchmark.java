@@ -0,0 +1,83 @@
+package com.devexed.naturalsort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the comparator's operations on single strings. Run with the GC profiler, as the <code>jmh</code> task
+ * does, to also report the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NaturalOrderComparatorBenchmark {
+
+    // Power of two number of strings to cycle through.
+    private static final int stringCount = 1024;
+
+    @Param({"en", "de", "fr", "ar"})
+    public String locale;
+
+    @Param
+    public Dataset dataset;
+
+    private NaturalOrderComparator<String> comparator;
+    private NaturalOrderComparator<String> cachedComparator;
+    private String[] strings;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Locale locale = Locale.forLanguageTag(this.locale);
+        comparator = new NaturalOrderComparator<String>(locale);
+        cachedComparator = comparator.cached(stringCount);
+        strings = dataset.generate(stringCount, 0, locale);
+    }
+
+    private String next() {
+        index = (index + 1) & (stringCount - 1);
+        return strings[index];
+    }
+
+    @Benchmark
+    public int compare() {
+        return comparator.compare(next(), strings[(index + stringCount / 2) & (stringCount - 1)]);
+    }
+
+    @Benchmark
+    public int compareCached() {
+        return cachedComparator.compare(next(), strings[(index + stringCount / 2) & (stringCount - 1)]);
+    }
+
+    @Benchmark
+    public String normalize() {
+        return comparator.normalize(next());
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public int normalizedKey() {
+        return comparator.normalizedKey(next());
+    }
+
+    @Benchmark
+    public long naturalHash() {
+        return comparator.naturalHash(next());
+    }
+
+}
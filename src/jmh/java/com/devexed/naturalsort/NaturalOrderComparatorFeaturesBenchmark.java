@@ -0,0 +1,131 @@
+package com.devexed.naturalsort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.Collator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of comparators built with parts of natural ordering disabled, against the comparator with all parts
+ * enabled.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NaturalOrderComparatorFeaturesBenchmark {
+
+    public enum Features {
+
+        ALL {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder;
+            }
+        },
+
+        NO_NEGATIVES {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.negativeNumbers(false);
+            }
+        },
+
+        NO_GROUPING {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.groupedNumbers(false);
+            }
+        },
+
+        NO_DECIMALS {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.decimalNumbers(false);
+            }
+        },
+
+        INTEGERS {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.negativeNumbers(false).groupedNumbers(false).decimalNumbers(false);
+            }
+        },
+
+        NO_WHITESPACE_MERGING {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.mergeWhitespace(false);
+            }
+        },
+
+        PRIMARY_STRENGTH {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.strength(Collator.PRIMARY);
+            }
+        },
+
+        ORDINAL {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.ordinal(CaseFolding.NONE);
+            }
+        },
+
+        ORDINAL_IGNORE_CASE {
+            @Override
+            NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder) {
+                return builder.ordinal(CaseFolding.SIMPLE);
+            }
+        };
+
+        abstract NaturalOrderComparator.Builder configure(NaturalOrderComparator.Builder builder);
+
+    }
+
+    // Power of two number of strings to cycle through.
+    private static final int stringCount = 1024;
+
+    @Param({"FILE_NAMES", "VERSIONS", "ADDRESSES", "NUMBERS"})
+    public Dataset dataset;
+
+    @Param
+    public Features features;
+
+    private NaturalOrderComparator<String> comparator;
+    private String[] strings;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        comparator = features.configure(NaturalOrderComparator.builder().locale(Locale.ENGLISH)).build();
+        strings = dataset.generate(stringCount, 0, Locale.ENGLISH);
+    }
+
+    @Benchmark
+    public int compare() {
+        index = (index + 1) & (stringCount - 1);
+        return comparator.compare(strings[index], strings[(index + stringCount / 2) & (stringCount - 1)]);
+    }
+
+    @Benchmark
+    public NaturalSortKey getSortKey() {
+        index = (index + 1) & (stringCount - 1);
+        return comparator.getSortKey(strings[index]);
+    }
+
+}
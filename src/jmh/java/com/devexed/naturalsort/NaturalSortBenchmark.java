@@ -0,0 +1,76 @@
+package com.devexed.naturalsort;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to sort a whole array of strings with each of the sorting methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NaturalSortBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"FILE_NAMES", "ADDRESSES"})
+    public Dataset dataset;
+
+    private NaturalOrderComparator<String> comparator;
+    private String[] strings;
+    private String[] array;
+
+    @Setup
+    public void setUp() {
+        comparator = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        strings = dataset.generate(size, 0, Locale.ENGLISH);
+    }
+
+    @Setup(Level.Invocation)
+    public void copyStrings() {
+        array = strings.clone();
+    }
+
+    @Benchmark
+    public String[] sortComparator() {
+        Arrays.sort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public String[] parallelSort() {
+        NaturalSort.parallelSort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public String[] radixSort() {
+        NaturalSort.radixSort(array, comparator);
+        return array;
+    }
+
+    @Benchmark
+    public String[] parallelRadixSort() {
+        NaturalSort.parallelRadixSort(array, comparator);
+        return array;
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.devexed.naturalsort;
+
+/**
+ * Statistics of a cache at a point in time.
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * @return The number of lookups which found a cached value.
+     */
+    public long hitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of lookups which found no cached value and created one.
+     */
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * @return The number of values removed to make room for new ones.
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return The number of cached values.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return The fraction of lookups which found a cached value, or 1 if there were no lookups.
+     */
+    public double hitRate() {
+        long lookupCount = hitCount + missCount;
+        return lookupCount == 0 ? 1 : (double) hitCount / lookupCount;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+                + ", size=" + size + "}";
+    }
+
+}
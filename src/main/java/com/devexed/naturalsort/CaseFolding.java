@@ -0,0 +1,43 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>Case folding of text compared by code point, as set with {@link NaturalOrderComparator.Builder#ordinal}. Folding
+ * maps each code point to a single code point independently of the locale and of the characters around it.</p>
+ */
+public enum CaseFolding {
+
+    /**
+     * Compare code points as they are, so that for example "B" orders before "a".
+     */
+    NONE {
+        @Override
+        int fold(int codePoint) {
+            return codePoint;
+        }
+    },
+
+    /**
+     * Compare the ASCII letters A to Z as their lower case letters. All other code points are compared as they are.
+     */
+    ASCII {
+        @Override
+        int fold(int codePoint) {
+            return codePoint >= 'A' && codePoint <= 'Z' ? codePoint + ('a' - 'A') : codePoint;
+        }
+    },
+
+    /**
+     * Compare code points by their simple Unicode case folding, such that for example "&Eacute;" and "&eacute;"
+     * compare equal. Foldings which expand a code point into several, like "&szlig;" to "ss", are not applied.
+     */
+    SIMPLE {
+        @Override
+        int fold(int codePoint) {
+            if (codePoint < 0x80) return ASCII.fold(codePoint);
+            return Character.toLowerCase(Character.toUpperCase(codePoint));
+        }
+    };
+
+    abstract int fold(int codePoint);
+
+}
@@ -0,0 +1,52 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>Character sequence view of a character array. Unlike a {@link java.nio.CharBuffer} it has no position or limit to
+ * offset indexes by, and it may be pointed at another array, so one view can be reused to compare any number of arrays
+ * without allocating.</p>
+ */
+final class CharArrayText implements CharSequence {
+
+    private char[] chars;
+
+    CharArrayText() {
+    }
+
+    CharArrayText(char[] chars) {
+        this.chars = chars;
+    }
+
+    /**
+     * Point the view at an array.
+     *
+     * @param chars The array to view, or null to release the last viewed array.
+     * @return This view.
+     */
+    CharArrayText view(char[] chars) {
+        this.chars = chars;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return chars.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        // A copy, as the view may be pointed elsewhere.
+        if (start < 0 || end > chars.length || start > end) throw new IndexOutOfBoundsException(start + ", " + end);
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars);
+    }
+
+}
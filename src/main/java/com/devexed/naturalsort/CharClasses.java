@@ -0,0 +1,92 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>Lookup tables classifying every character of the Basic Multilingual Plane for the lexer, so that telling digits,
+ * whitespace and number separators apart is a single array access. Each entry holds the value of a decimal digit of any
+ * script in its low four bits, or {@link #notDigit}, and flags for the other classes in its high four bits.</p>
+ *
+ * <p>Digits and whitespace are the same for every lexer and are looked up in one shared table. The separators of
+ * numbers depend on the decimal format symbols and the recognized parts of the number grammar, so each set of
+ * separators gets a copy of the shared table with the separator flags set, compiled once and shared by all lexers with
+ * those separators. Surrogates are never digits, whitespace or separators.</p>
+ */
+final class CharClasses {
+
+    static final int valueMask = 0x0F;
+    static final int notDigit = 0x0F;
+    static final int whitespace = 0x10;
+    static final int minus = 0x20;
+    static final int grouping = 0x40;
+    static final int decimal = 0x80;
+
+    // Math minus, which is not dash punctuation but is used as the minus sign by some locales.
+    private static final char mathMinusChar = 0x2212;
+
+    private static final char noBreakSpaceChar = 0xA0;
+
+    private static final int tableSize = 0x10000;
+
+    /**
+     * Digits and whitespace of all characters, without any separators.
+     */
+    static final byte[] shared = compileShared();
+
+    // Lexers use few distinct sets of separators, typically one per locale.
+    private static final ClockCache<Long, byte[]> separatorTables = new ClockCache<Long, byte[]>(16);
+
+    private CharClasses() {
+    }
+
+    private static byte[] compileShared() {
+        byte[] table = new byte[tableSize];
+
+        for (int c = 0; c < tableSize; c++) {
+            int entry = Character.getType(c) == Character.DECIMAL_DIGIT_NUMBER ? Character.digit(c, 10) : notDigit;
+            if (Character.isWhitespace(c) || c == noBreakSpaceChar) entry |= whitespace;
+            table[c] = (byte) entry;
+        }
+
+        return table;
+    }
+
+    /**
+     * Get the table of a set of separators, with a separator's flag only set if that part of the number grammar is
+     * recognized. Any dash is a minus sign if the minus sign is a dash, and any whitespace is a grouping separator if
+     * the grouping separator is whitespace.
+     */
+    static byte[] separators(char minusChar, char groupingChar, char decimalChar,
+                             boolean negativeNumbers, boolean groupedNumbers, boolean decimalNumbers) {
+        long key = ((long) minusChar << 32) | ((long) groupingChar << 16) | decimalChar
+                | (negativeNumbers ? 1L << 48 : 0) | (groupedNumbers ? 1L << 49 : 0) | (decimalNumbers ? 1L << 50 : 0);
+        byte[] table = separatorTables.get(key);
+
+        if (table == null) {
+            table = shared.clone();
+            if (negativeNumbers) setMinus(table, minusChar);
+            if (groupedNumbers) setGrouping(table, groupingChar);
+            if (decimalNumbers) table[decimalChar] |= decimal;
+            separatorTables.put(key, table);
+        }
+
+        return table;
+    }
+
+    private static void setMinus(byte[] table, char minusChar) {
+        table[minusChar] |= minus;
+        if (Character.getType(minusChar) != Character.DASH_PUNCTUATION && minusChar != mathMinusChar) return;
+
+        for (int c = 0; c < tableSize; c++) {
+            if (Character.getType(c) == Character.DASH_PUNCTUATION) table[c] |= minus;
+        }
+    }
+
+    private static void setGrouping(byte[] table, char groupingChar) {
+        table[groupingChar] |= grouping;
+        if ((shared[groupingChar] & whitespace) == 0) return;
+
+        for (int c = 0; c < tableSize; c++) {
+            if ((shared[c] & whitespace) != 0) table[c] |= grouping;
+        }
+    }
+
+}
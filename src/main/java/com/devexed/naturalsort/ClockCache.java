@@ -0,0 +1,89 @@
+package com.devexed.naturalsort;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Bounded concurrent cache evicting values with the CLOCK algorithm, an approximation of least recently used
+ * eviction. Every cached value has a slot on a ring and a reference flag which is set whenever the value is looked up.
+ * To make room for a new value the clock hand sweeps the ring, clearing set flags, until it finds a value which has not
+ * been looked up since it was last passed and evicts it.</p>
+ *
+ * <p>Lookups never lock. Adding values is synchronized, which is cheap as long as most lookups hit.</p>
+ */
+final class ClockCache<K, V> {
+
+    private static final class Entry<K, V> {
+
+        final K key;
+        final V value;
+        volatile boolean referenced;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries;
+    private final Entry<?, ?>[] ring;
+    private int hand = 0;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    ClockCache(int maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("Maximum cache size must be positive");
+
+        entries = new ConcurrentHashMap<K, Entry<K, V>>();
+        ring = new Entry<?, ?>[maximumSize];
+    }
+
+    /**
+     * @return The cached value of the key or null if there is none.
+     */
+    V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+
+        // Avoid writing to the entry if it is already referenced, as the write is shared between processors.
+        if (!entry.referenced) entry.referenced = true;
+        hitCount.increment();
+        return entry.value;
+    }
+
+    synchronized void put(K key, V value) {
+        if (entries.containsKey(key)) return;
+
+        while (true) {
+            @SuppressWarnings("unchecked")
+            Entry<K, V> entry = (Entry<K, V>) ring[hand];
+            if (entry == null) break;
+
+            if (!entry.referenced) {
+                entries.remove(entry.key);
+                evictionCount.increment();
+                break;
+            }
+
+            entry.referenced = false;
+            hand = (hand + 1) % ring.length;
+        }
+
+        Entry<K, V> entry = new Entry<K, V>(key, value);
+        ring[hand] = entry;
+        entries.put(key, entry);
+        hand = (hand + 1) % ring.length;
+    }
+
+    CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), entries.size());
+    }
+
+}
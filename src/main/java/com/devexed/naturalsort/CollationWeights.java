@@ -0,0 +1,262 @@
+package com.devexed.naturalsort;
+
+import java.text.CollationElementIterator;
+import java.text.Collator;
+import java.text.RuleBasedCollator;
+import java.util.Arrays;
+
+/**
+ * <p>Collation elements of the Latin-1 characters of a {@link RuleBasedCollator}, looked up once so that text made of
+ * those characters can be compared without calling the collator. Comparison walks the elements of both texts exactly
+ * like {@link RuleBasedCollator#compare(String, String)}, with the same result at the collator's strength.</p>
+ *
+ * <p>A character is only looked up when its collation elements do not depend on the characters around it, so
+ * characters starting a contraction (e.g. "ch" in Czech) are left to the collator. Collators with identical strength or
+ * French secondary ordering are not supported at all.</p>
+ */
+final class CollationWeights {
+
+    private static final int tableSize = 0x100;
+
+    /**
+     * Look up the collation elements of a collator.
+     *
+     * @param mergeWhitespace Whether runs of whitespace in compared text are merged into a single space.
+     * @return The collation elements of the collator in its current state, or null if the collator is not supported.
+     */
+    static CollationWeights create(Collator collator, boolean mergeWhitespace) {
+        if (!(collator instanceof RuleBasedCollator)) return null;
+        RuleBasedCollator ruleCollator = (RuleBasedCollator) collator;
+        int strength = ruleCollator.getStrength();
+        if (strength == Collator.IDENTICAL) return null;
+
+        boolean[] contractionStarts = contractionStarts(ruleCollator.getRules());
+        if (contractionStarts == null) return null;
+
+        int[][] elements = new int[tableSize][];
+
+        for (int c = 0; c < tableSize; c++) {
+            if (contractionStarts[c]) continue;
+            CollationElementIterator iterator = ruleCollator.getCollationElementIterator(String.valueOf((char) c));
+            int[] charElements = new int[4];
+            int count = 0;
+
+            for (int order = iterator.next(); order != CollationElementIterator.NULLORDER; order = iterator.next()) {
+                if (count == charElements.length) break;
+                charElements[count++] = order;
+            }
+
+            // Leave characters which expand into an unusually long sequence to the collator.
+            if (count < charElements.length) elements[c] = Arrays.copyOf(charElements, count);
+        }
+
+        // Whitespace runs are compared as a single space.
+        if (mergeWhitespace && elements[' '] == null) return null;
+
+        return new CollationWeights(strength, elements, mergeWhitespace);
+    }
+
+    /**
+     * Find the Latin-1 characters which start a contraction in a set of collation rules, where all characters of the
+     * contraction are Latin-1.
+     *
+     * @return The contraction starts indexed by character, or null if the rules use French secondary ordering.
+     */
+    private static boolean[] contractionStarts(String rules) {
+        boolean[] starts = new boolean[tableSize];
+        StringBuilder token = new StringBuilder();
+        boolean reset = false;
+        boolean quoted = false;
+
+        for (int i = 0; i <= rules.length(); i++) {
+            char c = i < rules.length() ? rules.charAt(i) : '&';
+
+            if (quoted) {
+                if (c == '\'') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '\'') {
+                // The character following an opening quote is always quoted, even if it is a quote.
+                quoted = true;
+                if (++i < rules.length()) token.append(rules.charAt(i));
+            } else if (c == '@') {
+                return null;
+            } else if (c == '&' || c == '<' || c == ';' || c == ',' || c == '=' || c == '/') {
+                // Text following a reset is an expansion rather than a contraction, as is an extension.
+                if (!reset && token.length() > 1 && isLatin1(token)) starts[token.charAt(0)] = true;
+                token.setLength(0);
+                reset = c == '&' || c == '/';
+            } else if (!NaturalLexer.isWhitespace(c)) {
+                token.append(c);
+            }
+        }
+
+        return starts;
+    }
+
+    private static boolean isLatin1(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= tableSize) return false;
+        }
+
+        return true;
+    }
+
+    private final int strength;
+    private final int[][] elements;
+    private final boolean mergeWhitespace;
+
+    private CollationWeights(int strength, int[][] elements, boolean mergeWhitespace) {
+        this.strength = strength;
+        this.elements = elements;
+        this.mergeWhitespace = mergeWhitespace;
+    }
+
+    /**
+     * @return True if every character in a range of text has collation elements in the table.
+     */
+    boolean covers(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            boolean merged = mergeWhitespace && NaturalLexer.isWhitespace(c);
+            if ((c >= tableSize || elements[c] == null) && !merged) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Compare two ranges of text covered by the table, with any runs of whitespace merged into a single space if
+     * whitespace is merged. Follows the algorithm of {@link RuleBasedCollator#compare(String, String)} element by
+     * element.
+     */
+    int compare(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        ElementCursor lhsCursor = new ElementCursor(lhs, lhsStart, lhsEnd);
+        ElementCursor rhsCursor = new ElementCursor(rhs, rhsStart, rhsEnd);
+        int result = 0;
+        boolean checkSecondary = strength >= Collator.SECONDARY;
+        boolean checkTertiary = strength >= Collator.TERTIARY;
+        int lhsOrder = 0;
+        int rhsOrder = 0;
+        boolean nextLhs = true;
+        boolean nextRhs = true;
+
+        while (true) {
+            if (nextLhs) lhsOrder = lhsCursor.next(); else nextLhs = true;
+            if (nextRhs) rhsOrder = rhsCursor.next(); else nextRhs = true;
+            if (lhsOrder == CollationElementIterator.NULLORDER || rhsOrder == CollationElementIterator.NULLORDER) break;
+            if (lhsOrder == rhsOrder) continue;
+
+            int lhsPrimary = CollationElementIterator.primaryOrder(lhsOrder);
+            int rhsPrimary = CollationElementIterator.primaryOrder(rhsOrder);
+
+            if (lhsPrimary != rhsPrimary) {
+                // Skip completely ignorable elements.
+                if (lhsOrder == 0) {
+                    nextRhs = false;
+                } else if (rhsOrder == 0) {
+                    nextLhs = false;
+                } else if (lhsPrimary == 0) {
+                    // A secondary element such as an accent orders after the lack of one.
+                    if (checkSecondary) {
+                        result = 1;
+                        checkSecondary = false;
+                    }
+
+                    nextRhs = false;
+                } else if (rhsPrimary == 0) {
+                    if (checkSecondary) {
+                        result = -1;
+                        checkSecondary = false;
+                    }
+
+                    nextLhs = false;
+                } else {
+                    return lhsPrimary < rhsPrimary ? -1 : 1;
+                }
+            } else if (checkSecondary) {
+                int lhsSecondary = CollationElementIterator.secondaryOrder(lhsOrder);
+                int rhsSecondary = CollationElementIterator.secondaryOrder(rhsOrder);
+
+                if (lhsSecondary != rhsSecondary) {
+                    result = lhsSecondary < rhsSecondary ? -1 : 1;
+                    checkSecondary = false;
+                } else if (checkTertiary) {
+                    int lhsTertiary = CollationElementIterator.tertiaryOrder(lhsOrder);
+                    int rhsTertiary = CollationElementIterator.tertiaryOrder(rhsOrder);
+
+                    if (lhsTertiary != rhsTertiary) {
+                        result = lhsTertiary < rhsTertiary ? -1 : 1;
+                        checkTertiary = false;
+                    }
+                }
+            }
+        }
+
+        // Any remaining non-ignorable element makes the longer text order last.
+        if (lhsOrder != CollationElementIterator.NULLORDER) {
+            return remainder(lhsCursor, lhsOrder, checkSecondary, result, 1);
+        } else if (rhsOrder != CollationElementIterator.NULLORDER) {
+            return remainder(rhsCursor, rhsOrder, checkSecondary, result, -1);
+        }
+
+        return result;
+    }
+
+    private static int remainder(ElementCursor cursor, int order, boolean checkSecondary, int result, int longer) {
+        do {
+            if (CollationElementIterator.primaryOrder(order) != 0) return longer;
+
+            if (CollationElementIterator.secondaryOrder(order) != 0 && checkSecondary) {
+                result = longer;
+                checkSecondary = false;
+            }
+
+            order = cursor.next();
+        } while (order != CollationElementIterator.NULLORDER);
+
+        return result;
+    }
+
+    /**
+     * Iterates the collation elements of a range of text, like a collation element iterator over the text as it is
+     * compared.
+     */
+    private final class ElementCursor {
+
+        private final CharSequence text;
+        private final int end;
+        private int index;
+        private int[] charElements = new int[0];
+        private int elementIndex = 0;
+
+        ElementCursor(CharSequence text, int start, int end) {
+            this.text = text;
+            this.end = end;
+            this.index = start;
+        }
+
+        int next() {
+            while (elementIndex == charElements.length) {
+                if (index == end) return CollationElementIterator.NULLORDER;
+                char c = text.charAt(index);
+
+                if (mergeWhitespace && NaturalLexer.isWhitespace(c)) {
+                    charElements = elements[' '];
+                    index = NaturalLexer.skipWhitespace(text, index, end);
+                } else {
+                    charElements = elements[c];
+                    index++;
+                }
+
+                elementIndex = 0;
+            }
+
+            return charElements[elementIndex++];
+        }
+
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.devexed.naturalsort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * <p>Sorts the lines of text too large to fit in memory in natural order. Lines are read in chunks no larger than a
+ * memory budget, each chunk is sorted and written to a temporary file as a sorted run, and the runs are then merged
+ * into the output. When there are more runs than may be merged at once, consecutive runs are first merged into larger
+ * runs.</p>
+ *
+ * <p>The sort is stable, so the output is identical to reading all lines into memory and sorting them with the same
+ * comparator. Every output line is ended by a line feed.</p>
+ */
+public final class ExternalNaturalSort {
+
+    // Rough estimate of the memory used by a line and its sort key apart from their characters and bytes.
+    private static final long lineOverhead = 96;
+
+    private final NaturalOrderComparator<String> comparator;
+    private final long memoryBudget;
+    private final int maxMergedRuns;
+    private final Path temporaryDirectory;
+
+    /**
+     * Create a sorter using a quarter of the maximum heap, merging up to 64 runs at once and writing runs to the
+     * default temporary directory.
+     */
+    public ExternalNaturalSort(NaturalOrderComparator<String> comparator) {
+        this(comparator, Runtime.getRuntime().maxMemory() / 4, 64, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param comparator The comparator to sort lines with.
+     * @param memoryBudget The approximate number of bytes of memory to use for the lines of a sorted run.
+     * @param maxMergedRuns The largest number of runs, and so of open temporary files, to merge at once.
+     * @param temporaryDirectory The directory to write runs to.
+     */
+    public ExternalNaturalSort(NaturalOrderComparator<String> comparator, long memoryBudget, int maxMergedRuns,
+                               Path temporaryDirectory) {
+        if (memoryBudget <= 0) throw new IllegalArgumentException("Memory budget must be positive");
+        if (maxMergedRuns < 2) throw new IllegalArgumentException("At least two runs must be merged at once");
+
+        this.comparator = comparator;
+        this.memoryBudget = memoryBudget;
+        this.maxMergedRuns = maxMergedRuns;
+        this.temporaryDirectory = temporaryDirectory;
+    }
+
+    /**
+     * Sort the lines of a file into another file.
+     */
+    public void sort(Path input, Path output, Charset charset) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, charset);
+             BufferedWriter writer = Files.newBufferedWriter(output, charset)) {
+            sort(reader, writer);
+        }
+    }
+
+    /**
+     * Sort the lines read from a reader, writing them to a writer. Neither is closed.
+     */
+    public void sort(BufferedReader input, Writer output) throws IOException {
+        List<Path> temporaryFiles = new ArrayList<Path>();
+        List<Path> runs = new ArrayList<Path>();
+
+        try {
+            List<String> chunk = new ArrayList<String>();
+            long chunkSize = 0;
+            String line;
+
+            while ((line = input.readLine()) != null) {
+                chunk.add(line);
+                chunkSize += lineOverhead + 4L * line.length();
+
+                if (chunkSize >= memoryBudget) {
+                    runs.add(writeRun(sortChunk(chunk), temporaryFiles));
+                    chunk.clear();
+                    chunkSize = 0;
+                }
+            }
+
+            // Skip the temporary files entirely when everything fits in memory.
+            if (runs.isEmpty()) {
+                writeLines(sortChunk(chunk), output);
+                return;
+            }
+
+            if (!chunk.isEmpty()) runs.add(writeRun(sortChunk(chunk), temporaryFiles));
+
+            // Merge consecutive runs, which keeps equal lines in order, until all runs can be merged at once.
+            while (runs.size() > maxMergedRuns) {
+                List<Path> mergedRuns = new ArrayList<Path>();
+
+                for (int i = 0; i < runs.size(); i += maxMergedRuns) {
+                    List<Path> group = runs.subList(i, Math.min(i + maxMergedRuns, runs.size()));
+                    Path mergedRun = createRun(temporaryFiles);
+                    mergedRuns.add(mergedRun);
+
+                    try (BufferedWriter writer = Files.newBufferedWriter(mergedRun, StandardCharsets.UTF_8)) {
+                        merge(group, writer);
+                    }
+
+                    deleteRuns(group);
+                }
+
+                runs = mergedRuns;
+            }
+
+            merge(runs, output);
+        } finally {
+            deleteRuns(temporaryFiles);
+        }
+    }
+
+    private String[] sortChunk(List<String> chunk) {
+        NaturalSortKey[] keys = new NaturalSortKey[chunk.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = comparator.getSortKey(chunk.get(i));
+        Arrays.sort(keys);
+
+        String[] lines = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) lines[i] = NaturalSort.source(keys[i]);
+        return lines;
+    }
+
+    private Path createRun(List<Path> temporaryFiles) throws IOException {
+        Path run = Files.createTempFile(temporaryDirectory, "natural-sort", ".run");
+        temporaryFiles.add(run);
+        return run;
+    }
+
+    private Path writeRun(String[] lines, List<Path> temporaryFiles) throws IOException {
+        Path run = createRun(temporaryFiles);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            writeLines(lines, writer);
+        }
+
+        return run;
+    }
+
+    private static void writeLines(String[] lines, Writer output) throws IOException {
+        for (String line : lines) {
+            output.write(line);
+            output.write('\n');
+        }
+    }
+
+    private static void deleteRuns(List<Path> runs) throws IOException {
+        for (Path run : runs) Files.deleteIfExists(run);
+    }
+
+    /**
+     * Merge sorted runs, taking the line of the earliest run first when lines compare equal.
+     */
+    private void merge(List<Path> runs, Writer output) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runs.size());
+        List<RunReader> readers = new ArrayList<RunReader>(runs.size());
+
+        try {
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader reader = new RunReader(i, Files.newBufferedReader(runs.get(i), StandardCharsets.UTF_8));
+                readers.add(reader);
+                if (reader.next()) queue.add(reader);
+            }
+
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                output.write(reader.line);
+                output.write('\n');
+                if (reader.next()) queue.add(reader);
+            }
+        } finally {
+            for (RunReader reader : readers) reader.close();
+        }
+    }
+
+    private final class RunReader implements Comparable<RunReader>, Closeable {
+
+        private final int index;
+        private final BufferedReader reader;
+        private String line;
+
+        RunReader(int index, BufferedReader reader) {
+            this.index = index;
+            this.reader = reader;
+        }
+
+        boolean next() throws IOException {
+            line = reader.readLine();
+            return line != null;
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            int lineCompare = comparator.compare(line, other.line);
+            return lineCompare != 0 ? lineCompare : Integer.compare(index, other.index);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+    }
+
+}
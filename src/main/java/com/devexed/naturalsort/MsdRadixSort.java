@@ -0,0 +1,144 @@
+package com.devexed.naturalsort;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Stable most significant digit first radix sort of sort keys. Keys are distributed into buckets by their byte at
+ * the current depth, with keys which end before that depth in the first bucket, then each bucket is sorted by the next
+ * byte. Small buckets are insertion sorted instead, and ranges whose keys all share the byte at the current depth are
+ * skipped over without distributing them, which makes long common prefixes cheap.</p>
+ */
+final class MsdRadixSort {
+
+    private static final int insertionSortThreshold = 32;
+
+    // Smallest bucket sorted in its own task when sorting in parallel.
+    private static final int parallelThreshold = 1 << 13;
+
+    // Bucket for keys which have ended, followed by one bucket for each byte value.
+    private static final int bucketCount = 257;
+
+    private MsdRadixSort() {
+    }
+
+    static void sort(NaturalSortKey[] keys, boolean parallel) {
+        NaturalSortKey[] buffer = new NaturalSortKey[keys.length];
+
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new SortTask(keys, buffer, 0, keys.length, 0));
+        } else {
+            sort(keys, buffer, 0, keys.length, 0, false);
+        }
+    }
+
+    private static int bucket(NaturalSortKey key, int depth) {
+        byte[] bytes = key.bytes();
+        return depth < bytes.length ? (bytes[depth] & 0xFF) + 1 : 0;
+    }
+
+    private static void sort(NaturalSortKey[] keys, NaturalSortKey[] buffer, int start, int end, int depth,
+                             boolean parallel) {
+        while (true) {
+            if (end - start <= insertionSortThreshold) {
+                insertionSort(keys, start, end, depth);
+                return;
+            }
+
+            int[] bucketStarts = new int[bucketCount + 1];
+            for (int i = start; i < end; i++) bucketStarts[bucket(keys[i], depth) + 1]++;
+
+            // When all keys share the byte at this depth there is nothing to distribute.
+            int firstBucket = bucket(keys[start], depth);
+
+            if (bucketStarts[firstBucket + 1] == end - start) {
+                if (firstBucket == 0) return;
+                depth++;
+                continue;
+            }
+
+            bucketStarts[0] = start;
+            for (int i = 1; i <= bucketCount; i++) bucketStarts[i] += bucketStarts[i - 1];
+
+            int[] bucketEnds = bucketStarts.clone();
+            for (int i = start; i < end; i++) buffer[bucketEnds[bucket(keys[i], depth)]++] = keys[i];
+            System.arraycopy(buffer, start, keys, start, end - start);
+
+            // Keys which have ended are equal and already in their original order. Large buckets are forked first, so
+            // that other threads sort them while this thread sorts the small buckets.
+            RecursiveAction[] tasks = parallel ? new RecursiveAction[bucketCount] : null;
+            int taskCount = 0;
+
+            if (parallel) {
+                for (int i = 1; i < bucketCount; i++) {
+                    int bucketStart = bucketStarts[i];
+                    int bucketEnd = bucketStarts[i + 1];
+                    if (bucketEnd - bucketStart < parallelThreshold) continue;
+
+                    tasks[taskCount] = new SortTask(keys, buffer, bucketStart, bucketEnd, depth + 1);
+                    tasks[taskCount++].fork();
+                }
+            }
+
+            for (int i = 1; i < bucketCount; i++) {
+                int bucketSize = bucketStarts[i + 1] - bucketStarts[i];
+                if (bucketSize <= 1 || (parallel && bucketSize >= parallelThreshold)) continue;
+                sort(keys, buffer, bucketStarts[i], bucketStarts[i + 1], depth + 1, false);
+            }
+
+            for (int i = 0; i < taskCount; i++) tasks[i].join();
+            return;
+        }
+    }
+
+    private static void insertionSort(NaturalSortKey[] keys, int start, int end, int depth) {
+        for (int i = start + 1; i < end; i++) {
+            NaturalSortKey key = keys[i];
+            int j = i;
+
+            while (j > start && compare(keys[j - 1].bytes(), key.bytes(), depth) > 0) {
+                keys[j] = keys[j - 1];
+                j--;
+            }
+
+            keys[j] = key;
+        }
+    }
+
+    private static int compare(byte[] lhs, byte[] rhs, int depth) {
+        int length = Math.min(lhs.length, rhs.length);
+
+        for (int i = depth; i < length; i++) {
+            int byteCompare = (lhs[i] & 0xFF) - (rhs[i] & 0xFF);
+            if (byteCompare != 0) return byteCompare;
+        }
+
+        return lhs.length - rhs.length;
+    }
+
+    private static final class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final NaturalSortKey[] keys;
+        private final NaturalSortKey[] buffer;
+        private final int start;
+        private final int end;
+        private final int depth;
+
+        SortTask(NaturalSortKey[] keys, NaturalSortKey[] buffer, int start, int end, int depth) {
+            this.keys = keys;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            sort(keys, buffer, start, end, depth, true);
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>Building blocks of the 64-bit hash of a string in natural order. Values are mixed into the hash one by one, in
+ * the order of the string's segments, so that the hash only depends on what the comparator compares.</p>
+ */
+final class NaturalHash {
+
+    static final long seed = 0x6A09E667F3BCC908L;
+
+    // Mixed in after every segment of text and number to delimit them.
+    static final long textEnd = 0x3C6EF372FE94F82BL;
+    static final long numberEnd = 0xA54FF53A5F1D36F1L;
+
+    // Most decimal digits which always fit in a long.
+    private static final int digitsPerValue = 18;
+
+    private NaturalHash() {
+    }
+
+    static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Final avalanche, spreading every input bit over the whole hash.
+     */
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Mix a number in canonical form into a hash.
+     *
+     * @param sign The sign of the number.
+     * @param exponent The decimal exponent of the number, ignored if it is zero.
+     * @param digits Text containing the digits of the number, possibly separated by non-digits.
+     * @param start The index of the first significant digit.
+     * @param end The index after the last significant digit.
+     */
+    static long mixNumber(long hash, int sign, int exponent, CharSequence digits, int start, int end) {
+        hash = mix(hash, sign);
+
+        if (sign != 0) {
+            hash = mix(hash, exponent);
+            long value = 0;
+            int digitCount = 0;
+
+            for (int i = start; i < end; i++) {
+                int digit = NaturalLexer.digit(digits.charAt(i));
+                if (digit < 0) continue;
+                value = value * 10 + digit;
+
+                if (++digitCount % digitsPerValue == 0) {
+                    hash = mix(hash, value);
+                    value = 0;
+                }
+            }
+
+            hash = mix(hash, value);
+            hash = mix(hash, digitCount);
+        }
+
+        return mix(hash, numberEnd);
+    }
+
+    static int fold(long hash) {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+}
@@ -0,0 +1,533 @@
+package com.devexed.naturalsort;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * <p>Single pass scanner recognizing the numbers in a natural order string according to a set of decimal format
+ * symbols. A number is an optionally negative run of digits, possibly grouped (e.g. 1,000,000) and possibly followed by
+ * a decimal part. Everything between numbers is text.</p>
+ *
+ * <p>All methods work on index ranges of the scanned character sequence and never copy it. Characters are classified
+ * with the lookup tables of {@link CharClasses}.</p>
+ */
+final class NaturalLexer {
+
+    // Most decimal digits which always fit in a long.
+    private static final int maxLongDigits = 18;
+
+    // Zero width space, joiners and the left-to-right and right-to-left marks.
+    private static final char firstZeroWidthChar = 0x200B;
+    private static final char lastZeroWidthChar = 0x200F;
+    private static final char arabicLetterMarkChar = 0x061C;
+
+    private static final long[] powersOfTen = new long[maxLongDigits + 1];
+
+    static {
+        powersOfTen[0] = 1;
+        for (int i = 1; i <= maxLongDigits; i++) powersOfTen[i] = powersOfTen[i - 1] * 10;
+    }
+
+    // Character classes including the separators, which are only set for the recognized parts of the grammar.
+    private final byte[] charClasses;
+
+    // Parts of the grammar which may be disabled, which skips recognizing them.
+    private final boolean decimalNumbers;
+    private final boolean mergeWhitespace;
+
+    NaturalLexer(DecimalFormatSymbols symbols) {
+        this(symbols, true, true, true, true);
+    }
+
+    /**
+     * @param negativeNumbers Recognize a minus sign before a number as part of the number.
+     * @param groupedNumbers Recognize grouping separators between the digits of a number.
+     * @param decimalNumbers Recognize a decimal separator and fraction after the whole part of a number.
+     * @param mergeWhitespace Ignore whitespace around text and merge runs of whitespace within it.
+     */
+    NaturalLexer(DecimalFormatSymbols symbols, boolean negativeNumbers, boolean groupedNumbers, boolean decimalNumbers,
+                 boolean mergeWhitespace) {
+        this(symbols.getMinusSign(), symbols.getGroupingSeparator(), symbols.getDecimalSeparator(),
+                negativeNumbers, groupedNumbers, decimalNumbers, mergeWhitespace);
+    }
+
+    /**
+     * Create a lexer with the given separators rather than those of a set of decimal format symbols, which needs no
+     * locale data at all.
+     *
+     * @see #NaturalLexer(DecimalFormatSymbols, boolean, boolean, boolean, boolean)
+     */
+    NaturalLexer(char minusChar, char groupingChar, char decimalChar, boolean negativeNumbers, boolean groupedNumbers,
+                 boolean decimalNumbers, boolean mergeWhitespace) {
+        this.charClasses = CharClasses.separators(
+                minusChar, groupingChar, decimalChar, negativeNumbers, groupedNumbers, decimalNumbers);
+        this.decimalNumbers = decimalNumbers;
+        this.mergeWhitespace = mergeWhitespace;
+    }
+
+    boolean mergesWhitespace() {
+        return mergeWhitespace;
+    }
+
+    static boolean isWhitespace(char c) {
+        return (CharClasses.shared[c] & CharClasses.whitespace) != 0;
+    }
+
+    static boolean isDigit(char c) {
+        return (CharClasses.shared[c] & CharClasses.valueMask) != CharClasses.notDigit;
+    }
+
+    /**
+     * @return The value of a decimal digit of any script, or -1 if the character is not a digit.
+     */
+    static int digit(char c) {
+        int value = CharClasses.shared[c] & CharClasses.valueMask;
+        return value != CharClasses.notDigit ? value : -1;
+    }
+
+    boolean isMinus(char c) {
+        return (charClasses[c] & CharClasses.minus) != 0;
+    }
+
+    boolean isGrouping(char c) {
+        return (charClasses[c] & CharClasses.grouping) != 0;
+    }
+
+    boolean isDecimal(char c) {
+        return (charClasses[c] & CharClasses.decimal) != 0;
+    }
+
+    /**
+     * Find the start of the next number in a range of text.
+     *
+     * @return The index of the first digit or minus sign of the number, or <code>end</code> if there is no number. A
+     *         minus sign may be separated from the digits by bidi marks.
+     */
+    int numberStart(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) return i;
+
+            if (isMinus(c)) {
+                int digitIndex = skipMarks(text, i + 1, end);
+                if (digitIndex < end && isDigit(text.charAt(digitIndex))) return i;
+            }
+        }
+
+        return end;
+    }
+
+    /**
+     * Find the end of a number starting at an index returned by {@link #numberStart}.
+     *
+     * @return The index after the last digit of the number.
+     */
+    int numberEnd(CharSequence text, int start, int end) {
+        int i = start;
+        if (isMinus(text.charAt(i))) i = skipMarks(text, i + 1, end);
+        i = skipDigits(text, i, end);
+
+        // Include grouped whole part (e.g. 1,000,000,000)...
+        while (i + 1 < end && isGrouping(text.charAt(i)) && isDigit(text.charAt(i + 1))) {
+            i = skipDigits(text, i + 1, end);
+        }
+
+        // Include decimal part...
+        if (i + 1 < end && isDecimal(text.charAt(i)) && isDigit(text.charAt(i + 1))) {
+            i = skipDigits(text, i + 1, end);
+        }
+
+        return i;
+    }
+
+    /**
+     * Find the start of the last segment which begins before an index, such that scanning for numbers from the start of
+     * the segment finds the same numbers as scanning from the start of the text. Segments begin where a number ends, so
+     * this is the end of the last number which is known to end without looking at the index or beyond.
+     *
+     * @param text The text to search.
+     * @param start The index to search back to.
+     * @param end The index to find the segment before.
+     * @return The start of the segment, or <code>start</code> if there is no number known to end before the index.
+     */
+    int segmentStartBefore(CharSequence text, int start, int end) {
+        for (int i = end - 1; i > start; i--) {
+            if (isDigit(text.charAt(i - 1)) && isNumberEnd(text, i, end)) return i;
+        }
+
+        return start;
+    }
+
+    private boolean isNumberEnd(CharSequence text, int index, int end) {
+        char c = text.charAt(index);
+        if (isDigit(c)) return false;
+        if (isGrouping(c) || isDecimal(c)) return index + 1 < end && !isDigit(text.charAt(index + 1));
+        return true;
+    }
+
+    static int commonPrefixLength(CharSequence lhs, int lhsStart, int lhsEnd,
+                                  CharSequence rhs, int rhsStart, int rhsEnd) {
+        int length = Math.min(lhsEnd - lhsStart, rhsEnd - rhsStart);
+        int i = 0;
+        while (i < length && lhs.charAt(lhsStart + i) == rhs.charAt(rhsStart + i)) i++;
+        return i;
+    }
+
+    private static int skipDigits(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && isDigit(text.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipMarks(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && isMark(text.charAt(i))) i++;
+        return i;
+    }
+
+    static int skipWhitespace(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+
+    static int skipWhitespaceBackwards(CharSequence text, int start, int end) {
+        int i = end;
+        while (i > start && isWhitespace(text.charAt(i - 1))) i--;
+        return i;
+    }
+
+    /**
+     * Parse a number found by {@link #numberStart} and {@link #numberEnd}.
+     */
+    BigDecimal parseNumber(CharSequence text, int start, int end) {
+        StringBuilder number = new StringBuilder(end - start);
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+
+            if (isDigit(c)) {
+                number.append((char) ('0' + digit(c)));
+            } else if (isDecimal(c)) {
+                number.append('.');
+            } else if (i == start) {
+                number.append('-');
+            }
+            // Ignore grouping separators.
+        }
+
+        return new BigDecimal(number.toString());
+    }
+
+    int compareNumbers(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        // Parse the whole and decimal parts into longs when they are short enough, which they nearly always are.
+        boolean lhsNegative = isMinus(lhs.charAt(lhsStart));
+        boolean rhsNegative = isMinus(rhs.charAt(rhsStart));
+        int lhsDecimal = decimalIndex(lhs, lhsNegative ? lhsStart + 1 : lhsStart, lhsEnd);
+        int rhsDecimal = decimalIndex(rhs, rhsNegative ? rhsStart + 1 : rhsStart, rhsEnd);
+        long lhsWhole = parseWhole(lhs, lhsNegative ? lhsStart + 1 : lhsStart, lhsDecimal);
+        long rhsWhole = parseWhole(rhs, rhsNegative ? rhsStart + 1 : rhsStart, rhsDecimal);
+        long lhsFraction = parseFraction(lhs, lhsDecimal, lhsEnd);
+        long rhsFraction = parseFraction(rhs, rhsDecimal, rhsEnd);
+
+        if (lhsWhole < 0 || rhsWhole < 0 || lhsFraction < 0 || rhsFraction < 0) {
+            return compareLongNumbers(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd);
+        }
+
+        // Zero is neither negative nor positive.
+        int lhsSign = lhsWhole == 0 && lhsFraction == 0 ? 0 : lhsNegative ? -1 : 1;
+        int rhsSign = rhsWhole == 0 && rhsFraction == 0 ? 0 : rhsNegative ? -1 : 1;
+        if (lhsSign != rhsSign) return lhsSign < rhsSign ? -1 : 1;
+
+        int magnitudeCompare = lhsWhole != rhsWhole
+                ? Long.compare(lhsWhole, rhsWhole)
+                : Long.compare(lhsFraction, rhsFraction);
+        return lhsSign * magnitudeCompare;
+    }
+
+    /**
+     * Compare a number in canonical form, as parsed into {@link NaturalTokens}, with a number found in text.
+     */
+    int compareNumber(int sign, int exponent, String digits, CharSequence text, int start, int end) {
+        int significantStart = significantStart(text, start, end);
+        int textSign = significantStart == end ? 0 : isMinus(text.charAt(start)) ? -1 : 1;
+        if (sign != textSign) return sign < textSign ? -1 : 1;
+        if (sign == 0) return 0;
+
+        int textExponent = exponent(text, start, significantStart, end);
+        if (exponent != textExponent) return exponent < textExponent ? -sign : sign;
+
+        return sign * compareDigits(digits, 0, digits.length(), text, significantStart, end);
+    }
+
+    /**
+     * Compare numbers of any length digit by digit, without parsing them.
+     */
+    private int compareLongNumbers(CharSequence lhs, int lhsStart, int lhsEnd,
+                                   CharSequence rhs, int rhsStart, int rhsEnd) {
+        int lhsSignificant = significantStart(lhs, lhsStart, lhsEnd);
+        int rhsSignificant = significantStart(rhs, rhsStart, rhsEnd);
+
+        // Zero is neither negative nor positive.
+        int lhsSign = lhsSignificant == lhsEnd ? 0 : isMinus(lhs.charAt(lhsStart)) ? -1 : 1;
+        int rhsSign = rhsSignificant == rhsEnd ? 0 : isMinus(rhs.charAt(rhsStart)) ? -1 : 1;
+        if (lhsSign != rhsSign) return lhsSign < rhsSign ? -1 : 1;
+        if (lhsSign == 0) return 0;
+
+        // The number with the most significant digits before the decimal separator has the largest magnitude.
+        int lhsExponent = exponent(lhs, lhsStart, lhsSignificant, lhsEnd);
+        int rhsExponent = exponent(rhs, rhsStart, rhsSignificant, rhsEnd);
+        if (lhsExponent != rhsExponent) return lhsExponent < rhsExponent ? -lhsSign : lhsSign;
+
+        return lhsSign * compareDigits(lhs, lhsSignificant, lhsEnd, rhs, rhsSignificant, rhsEnd);
+    }
+
+    /**
+     * Compare the digits of two numbers of equal exponent one by one, ignoring any separators and trailing zeros.
+     */
+    private static int compareDigits(CharSequence lhs, int lhsStart, int lhsEnd,
+                                     CharSequence rhs, int rhsStart, int rhsEnd) {
+        int i = nextDigit(lhs, lhsStart, lhsEnd);
+        int j = nextDigit(rhs, rhsStart, rhsEnd);
+
+        while (i < lhsEnd && j < rhsEnd) {
+            int digitCompare = digit(lhs.charAt(i)) - digit(rhs.charAt(j));
+            if (digitCompare != 0) return digitCompare < 0 ? -1 : 1;
+            i = nextDigit(lhs, i + 1, lhsEnd);
+            j = nextDigit(rhs, j + 1, rhsEnd);
+        }
+
+        // The number with remaining non-zero digits is the largest.
+        if (significantStart(lhs, i, lhsEnd) < lhsEnd) return 1;
+        if (significantStart(rhs, j, rhsEnd) < rhsEnd) return -1;
+        return 0;
+    }
+
+    private static int nextDigit(CharSequence text, int start, int end) {
+        int i = start;
+        while (i < end && !isDigit(text.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * @return The index of the first non-zero digit of a number, or <code>end</code> if the number is zero.
+     */
+    static int significantStart(CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (digit(text.charAt(i)) > 0) return i;
+        }
+
+        return end;
+    }
+
+    /**
+     * @return The index after the last non-zero digit of a number.
+     */
+    static int significantEnd(CharSequence text, int start, int end) {
+        for (int i = end; i > start; i--) {
+            if (digit(text.charAt(i - 1)) > 0) return i;
+        }
+
+        return start;
+    }
+
+    /**
+     * Copy the significant digits of a number as ASCII digits, without separators or trailing zeros.
+     */
+    static String significantDigits(CharSequence text, int significantStart, int end) {
+        int significantEnd = significantEnd(text, significantStart, end);
+        StringBuilder digits = new StringBuilder(significantEnd - significantStart);
+
+        for (int i = significantStart; i < significantEnd; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit >= 0) digits.append((char) ('0' + digit));
+        }
+
+        return digits.toString();
+    }
+
+    /**
+     * Find the decimal exponent of a non-zero number, which is the number of digits from its first significant digit to
+     * its decimal separator. Negative when the first significant digit follows the decimal separator.
+     */
+    int exponent(CharSequence text, int start, int significantStart, int end) {
+        int decimal = decimalIndex(text, start, end);
+        int exponent = 0;
+
+        if (significantStart < decimal) {
+            for (int i = significantStart; i < decimal; i++) {
+                if (isDigit(text.charAt(i))) exponent++;
+            }
+        } else {
+            exponent = -(significantStart - decimal - 1);
+        }
+
+        return exponent;
+    }
+
+    private int decimalIndex(CharSequence text, int start, int end) {
+        if (!decimalNumbers) return end;
+
+        for (int i = start; i < end; i++) {
+            if (isDecimal(text.charAt(i))) return i;
+        }
+
+        return end;
+    }
+
+    /**
+     * Parse the whole part of a number, ignoring any grouping separators.
+     *
+     * @return The value of the whole part or -1 if it has too many significant digits to fit in a long.
+     */
+    private static long parseWhole(CharSequence text, int start, int end) {
+        long value = 0;
+        int digitCount = 0;
+
+        for (int i = start; i < end; i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0) continue;
+            if (value != 0 && ++digitCount >= maxLongDigits) return -1;
+            value = value * 10 + digit;
+        }
+
+        return value;
+    }
+
+    /**
+     * Parse the decimal part of a number starting at its decimal separator, scaled to a fixed number of digits.
+     *
+     * @return The scaled value of the decimal part or -1 if it has too many digits to fit in a long.
+     */
+    private static long parseFraction(CharSequence text, int start, int end) {
+        int digitCount = end - start - 1;
+        if (digitCount <= 0) return 0;
+        if (digitCount > maxLongDigits) return -1;
+        long value = 0;
+
+        for (int i = start + 1; i < end; i++) {
+            value = value * 10 + digit(text.charAt(i));
+        }
+
+        return value * powersOfTen[maxLongDigits - digitCount];
+    }
+
+    /**
+     * @return The start of a range of text without any whitespace ignored around it.
+     */
+    int trimStart(CharSequence text, int start, int end) {
+        if (!mergeWhitespace) return start;
+        int i = start;
+        while (i < end && isTrimmed(text.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * @return The end of a range of text without any whitespace ignored around it.
+     */
+    int trimEnd(CharSequence text, int start, int end) {
+        if (!mergeWhitespace) return end;
+        int i = end;
+        while (i > start && isTrimmed(text.charAt(i - 1))) i--;
+        return i;
+    }
+
+    /**
+     * Whitespace is trimmed together with any invisible zero width characters and bidi marks next to it. Some locales
+     * put a bidi mark between the whitespace before a number and its minus sign (e.g. "a &lrm;-1"), which would
+     * otherwise keep the whitespace from being trimmed.
+     */
+    private static boolean isTrimmed(char c) {
+        return isWhitespace(c) || isMark(c);
+    }
+
+    /**
+     * @return True for invisible zero width characters and bidi marks, which some locales also put between the minus
+     *         sign and the digits of a number (e.g. "-&lrm;1").
+     */
+    private static boolean isMark(char c) {
+        return (c >= firstZeroWidthChar && c <= lastZeroWidthChar) || c == arabicLetterMarkChar;
+    }
+
+    /**
+     * Compare two ranges of text for equality, treating any runs of whitespace as equal if whitespace is merged.
+     */
+    boolean equalText(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        if (mergeWhitespace) return textEquals(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd);
+        if (lhsEnd - lhsStart != rhsEnd - rhsStart) return false;
+        return commonPrefixLength(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd) == lhsEnd - lhsStart;
+    }
+
+    /**
+     * Copy a range of text, merging any runs of whitespace into a single space if whitespace is merged.
+     */
+    String copyText(CharSequence text, int start, int end) {
+        return mergeWhitespace ? mergeWhitespace(text, start, end) : text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Copy the text of a segment as it is compared, without any whitespace ignored around it.
+     */
+    String segmentText(CharSequence text, int start, int end) {
+        start = trimStart(text, start, end);
+        return copyText(text, start, trimEnd(text, start, end));
+    }
+
+    /**
+     * Compare two ranges of text for equality, treating any runs of whitespace as equal to each other.
+     */
+    static boolean textEquals(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        int i = lhsStart;
+        int j = rhsStart;
+
+        while (i < lhsEnd && j < rhsEnd) {
+            char lhsChar = lhs.charAt(i);
+            char rhsChar = rhs.charAt(j);
+
+            if (isWhitespace(lhsChar) && isWhitespace(rhsChar)) {
+                i = skipWhitespace(lhs, i, lhsEnd);
+                j = skipWhitespace(rhs, j, rhsEnd);
+            } else if (lhsChar == rhsChar) {
+                i++;
+                j++;
+            } else {
+                return false;
+            }
+        }
+
+        return i == lhsEnd && j == rhsEnd;
+    }
+
+    /**
+     * Copy a range of text, trimming whitespace from either end and merging any other runs of whitespace into a single
+     * space.
+     */
+    static String textSegment(CharSequence text, int start, int end) {
+        start = skipWhitespace(text, start, end);
+        end = skipWhitespaceBackwards(text, start, end);
+        return mergeWhitespace(text, start, end);
+    }
+
+    /**
+     * Copy a range of text, merging any runs of whitespace into a single space.
+     */
+    static String mergeWhitespace(CharSequence text, int start, int end) {
+        StringBuilder merged = new StringBuilder(end - start);
+        int i = start;
+
+        while (i < end) {
+            char c = text.charAt(i);
+
+            if (isWhitespace(c)) {
+                merged.append(' ');
+                i = skipWhitespace(text, i, end);
+            } else {
+                merged.append(c);
+                i++;
+            }
+        }
+
+        return merged.toString();
+    }
+
+}
@@ -1,25 +1,48 @@
 package com.devexed.naturalsort;
 
-import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.text.CollationElementIterator;
 import java.text.Collator;
-import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.text.ParseException;
-import java.util.Arrays;
+import java.text.RuleBasedCollator;
 import java.util.Comparator;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 
 /**
  * <p>Comparator for ordering strings in <a href="https://en.wikipedia.org/wiki/Natural_sort_order">natural order</a>.
  * Compares strings case-insensitively and compares any numbers found in the string according to their magnitude, rather
- * than digit by digit. Additionally merges whitespace in text and ignores any whitespace around numbers for even more
- * human friendliness.</p>
+ * than digit by digit. Additionally merges whitespace in text and ignores any whitespace around numbers and at either
+ * end of the string for even more human friendliness.</p>
+ *
+ * <p>Strings are compared segment by segment, where each segment is a piece of text followed by a number. The text is
+ * compared using the comparator's {@link Collator}, or by code point if built with {@link Builder#ordinal}, and the
+ * numbers by their value. A string without any further segments orders before a string with more segments when their
+ * text is otherwise equal.</p>
+ *
+ * <p>Comparators are thread-safe, but comparators created with a constructor share their collator between all threads,
+ * which makes threads wait on each other when comparing text. Use {@link #concurrent(Locale)} for comparators which are
+ * shared by many threads.</p>
+ *
+ * <p>Comparing, hashing and creating sort keys take time linear in the length of the strings, whatever their content.
+ * Strings are scanned without backtracking and each character is read a bounded number of times, so long strings of
+ * digits, separators or whitespace sent by untrusted clients can't make a comparison slower than its length.</p>
  */
 public final class NaturalOrderComparator<T extends CharSequence> implements Comparator<T> {
 
+    // Comparators shared by all callers of forLocale, created on first use.
+    private static final ClockCache<Locale, NaturalOrderComparator<?>> localeComparators =
+            new ClockCache<Locale, NaturalOrderComparator<?>>(64);
+
+    // Views of the character arrays compared by each thread, reused so that comparing arrays allocates nothing.
+    private static final ThreadLocal<CharArrayText[]> charArrayViews =
+            ThreadLocal.withInitial(() -> new CharArrayText[] { new CharArrayText(), new CharArrayText() });
+
+    // Views of the UTF-8 encoded ranges compared by each thread.
+    private static final ThreadLocal<Utf8Text[]> utf8Views =
+            ThreadLocal.withInitial(() -> new Utf8Text[] { new Utf8Text(), new Utf8Text() });
+
     private static Collator createDefaultCollator(Locale locale) {
         // Secondary strength collator which typically compares case-insensitively.
         Collator textCollator = Collator.getInstance(locale);
@@ -28,170 +51,671 @@ public final class NaturalOrderComparator<T extends CharSequence> implements Com
         return textCollator;
     }
 
-    private static String quoteAndGroup(String regex) {
-        return "(?:" + Pattern.quote(regex) + ")";
+    /**
+     * Start building a comparator, which allows disabling the parts of natural ordering which aren't needed for faster
+     * comparison.
+     */
+    public static Builder builder() {
+        return new Builder();
     }
 
-    private static boolean isWhitespace(char c) {
-        return Character.isWhitespace(c) || c == 160;
+    /**
+     * Create a comparator for a locale which may be used by any number of threads at once without contention.
+     *
+     * @see #concurrent(Collator, DecimalFormatSymbols)
+     */
+    public static <T extends CharSequence> NaturalOrderComparator<T> concurrent(Locale locale) {
+        return new NaturalOrderComparator<T>(
+                createDefaultCollator(locale), new NaturalLexer(new DecimalFormatSymbols(locale)), true);
     }
 
-    // Unicode whitespace and digit matching.
-    private static final String digitPatternString = "\\p{Nd}";
-    private static final String whitespacePatternString = "[\\s\\u00A0]";
+    /**
+     * Get the shared comparator of a locale, the same as created by {@link #concurrent(Locale)}. Comparators of the
+     * most recently used locales are kept in a bounded registry, so getting the comparator of a locale is usually a
+     * lookup rather than the creation of a collator and its collation tables.
+     *
+     * @param locale The locale to compare strings in.
+     * @return The comparator of the locale, which may be used by any number of threads at once.
+     */
+    public static <T extends CharSequence> NaturalOrderComparator<T> forLocale(Locale locale) {
+        NaturalOrderComparator<?> comparator = localeComparators.get(locale);
+
+        if (comparator == null) {
+            comparator = concurrent(locale);
+            localeComparators.put(locale, comparator);
+        }
 
-    private final Collator textCollator;
-    private final Pattern decimalChunkPatten;
-    private final Pattern minusCharPatten;
-    private final Pattern groupingCharPatten;
-    private final Pattern deicmalCharPatten;
+        // Comparators compare any type of string the same, so one comparator can serve every type.
+        @SuppressWarnings("unchecked")
+        NaturalOrderComparator<T> typedComparator = (NaturalOrderComparator<T>) comparator;
+        return typedComparator;
+    }
 
-    private final DecimalFormat decimalFormat;
+    /**
+     * @return Statistics of the registry of comparators shared by {@link #forLocale(Locale)}, where each miss is the
+     *         creation of a comparator.
+     */
+    public static CacheStats forLocaleStats() {
+        return localeComparators.stats();
+    }
+
+    /**
+     * Create a comparator which may be used by any number of threads at once without contention. Collators synchronize
+     * their comparisons, so instead of sharing one collator each thread collates text with its own copy of the given
+     * collator. The collator is copied on creation and later changes to it do not affect the comparator.
+     */
+    public static <T extends CharSequence> NaturalOrderComparator<T> concurrent(Collator textCollator,
+                                                                                DecimalFormatSymbols symbols) {
+        return new NaturalOrderComparator<T>((Collator) textCollator.clone(), new NaturalLexer(symbols), true);
+    }
+
+    private final Collator textCollator;
+    private final ThreadLocal<Collator> threadTextCollators;
+    private final CollationWeights textWeights;
+    private final OrdinalText ordinalText;
+    private final NaturalLexer lexer;
+    private final ClockCache<String, NaturalTokens> tokenCache;
 
     public NaturalOrderComparator() {
         this(Locale.getDefault());
     }
 
     public NaturalOrderComparator(Locale locale) {
-        this(createDefaultCollator(locale), new DecimalFormatSymbols(locale));
+        this(createDefaultCollator(locale), new NaturalLexer(new DecimalFormatSymbols(locale)), false);
     }
 
+    /**
+     * Create a comparator collating text with a copy of a collator. The collator is copied on creation and later
+     * changes to it do not affect the comparator.
+     */
     public NaturalOrderComparator(Collator textCollator, DecimalFormatSymbols symbols) {
-        this.textCollator = textCollator;
-
-        // Relevant number symbols coerced to non-null strings.
-        char minusChar = symbols.getMinusSign();
-        char groupingChar = symbols.getGroupingSeparator();
-        char decimalChar = symbols.getDecimalSeparator();
-
-        // Relax regex to include more types of characters as separators
-        String minusSign =
-                Character.getType(minusChar) == Character.DASH_PUNCTUATION ||
-                minusChar == 0x2212 // math minus
-                        ? "\\p{Pd}"
-                        : quoteAndGroup("" + minusChar);
-        String groupingSeparator =
-                isWhitespace(groupingChar)
-                        ? whitespacePatternString
-                        : quoteAndGroup("" + groupingChar);
-        String decimalSeparator = quoteAndGroup("" + decimalChar);
-
-        minusCharPatten = Pattern.compile(minusSign);
-        groupingCharPatten = Pattern.compile(groupingSeparator);
-        deicmalCharPatten = Pattern.compile(decimalSeparator);
+        this((Collator) textCollator.clone(), new NaturalLexer(symbols), false);
+    }
 
-        // Pattern to match numbers in the string.
-        String patternBuilder =
-                // Match first non-number part
-                "(" + whitespacePatternString + "*.*?" + whitespacePatternString + "*)" +
+    private NaturalOrderComparator(final Collator textCollator, NaturalLexer lexer, boolean concurrent) {
+        this.textCollator = textCollator;
+        this.threadTextCollators = concurrent
+                ? new ThreadLocal<Collator>() {
+                    @Override
+                    protected Collator initialValue() {
+                        return (Collator) textCollator.clone();
+                    }
+                }
+                : null;
+        this.textWeights = CollationWeights.create(textCollator, lexer.mergesWhitespace());
+        this.ordinalText = null;
+        this.lexer = lexer;
+        this.tokenCache = null;
+    }
 
-                "(" +
-                // Include negative numbers...
-                minusSign + "?" +
+    private NaturalOrderComparator(OrdinalText ordinalText, NaturalLexer lexer) {
+        this.textCollator = null;
+        this.threadTextCollators = null;
+        this.textWeights = null;
+        this.ordinalText = ordinalText;
+        this.lexer = lexer;
+        this.tokenCache = null;
+    }
 
-                // Include grouped whole part (e.g. 1,000,000,000)...
-                "(?:" + digitPatternString + "+" + groupingSeparator + ")*" +
-                digitPatternString + "+" +
+    private NaturalOrderComparator(NaturalOrderComparator<T> comparator, ClockCache<String, NaturalTokens> tokenCache) {
+        this.textCollator = comparator.textCollator;
+        this.threadTextCollators = comparator.threadTextCollators;
+        this.textWeights = comparator.textWeights;
+        this.ordinalText = comparator.ordinalText;
+        this.lexer = comparator.lexer;
+        this.tokenCache = tokenCache;
+    }
 
-                // Include decimal part...
-                "(?:" + decimalSeparator + digitPatternString + "+)?" +
+    /**
+     * Create a comparator which caches the parsed segments of the strings it compares. Useful when a limited set of
+     * strings is compared over and over, as each string is only parsed until it is evicted from the cache. Strings are
+     * cached by their {@link Object#toString()} value and evicted approximately least recently used first. The cache
+     * may be used by any number of threads at once.
+     *
+     * @param maximumSize The largest number of strings to cache.
+     * @return A caching comparator with the same ordering as this one.
+     */
+    public NaturalOrderComparator<T> cached(int maximumSize) {
+        return new NaturalOrderComparator<T>(this, new ClockCache<String, NaturalTokens>(maximumSize));
+    }
 
-                ")";
-        decimalChunkPatten = Pattern.compile(patternBuilder);
+    /**
+     * @return Statistics of the cache of a comparator created by {@link #cached(int)}, or null if it has no cache.
+     */
+    public CacheStats cacheStats() {
+        return tokenCache != null ? tokenCache.stats() : null;
+    }
 
-        // Format to parse the numbers with three digits per group and a decimal part.
-        decimalFormat = new DecimalFormat("0.#", new DecimalFormatSymbols(Locale.ENGLISH));
-        decimalFormat.setParseBigDecimal(true);
+    private Collator collator() {
+        return threadTextCollators != null ? threadTextCollators.get() : textCollator;
     }
 
     public String normalize(T text) {
         StringBuilder normalizedText = new StringBuilder();
-        Matcher matcher = decimalChunkPatten.matcher(text);
+        int length = text.length();
         int end = 0;
 
-        while (matcher.find()) {
-            String textPart = matcher.group(1);
-            String numberPart = matcher.group(2);
-            numberPart = minusCharPatten.matcher(numberPart).replaceAll("-");
-            numberPart = groupingCharPatten.matcher(numberPart).replaceAll("");
-            numberPart = deicmalCharPatten.matcher(numberPart).replaceAll(".");
-            String numberNormalized;
-
-            try {
-                numberNormalized = decimalFormat.parse(numberPart).toString();
-            } catch (NumberFormatException | ParseException ex) {
-                // Should be ignorable barring some mismatch between DecimalFormat and the number regex.
-                // In which case we use the text value instead of the number value.
-                numberNormalized = numberPart;
-            }
+        while (true) {
+            int numberStart = lexer.numberStart(text, end, length);
+            if (numberStart == length) break;
+            int numberEnd = lexer.numberEnd(text, numberStart, length);
 
-            normalizedText.append(textPart);
-            normalizedText.append(numberNormalized);
-            end = matcher.end();
+            normalizedText.append(text, end, numberStart);
+            normalizedText.append(lexer.parseNumber(text, numberStart, numberEnd).toString());
+            end = numberEnd;
         }
 
-        return normalizedText.append(text.subSequence(end, text.length())).toString();
+        return normalizedText.append(text, end, length).toString();
     }
 
+    /**
+     * @deprecated Use {@link #naturalHash(CharSequence)}, which is faster and has 64 bits.
+     * @return The 64-bit natural hash of the text folded into 32 bits.
+     */
+    @Deprecated
     public int normalizedKey(T text) {
-        return Arrays.hashCode(textCollator.getCollationKey(normalize(text)).toByteArray());
+        return NaturalHash.fold(naturalHash(text));
+    }
+
+    /**
+     * Hash a string consistently with this comparator, so that any strings which compare equal have equal hashes. Text
+     * is hashed by its primary collation weights, or its folded code points if compared by code point, and numbers by
+     * their value, without copying any part of the string.
+     *
+     * @param text The string to hash.
+     * @return The 64-bit hash of the string.
+     */
+    public long naturalHash(T text) {
+        long hash = NaturalHash.seed;
+        int length = text.length();
+        int start = 0;
+
+        while (true) {
+            int numberStart = lexer.numberStart(text, start, length);
+            hash = mixText(hash, text, start, numberStart);
+            if (numberStart == length) break;
+
+            int numberEnd = lexer.numberEnd(text, numberStart, length);
+            int significantStart = NaturalLexer.significantStart(text, numberStart, numberEnd);
+            boolean zero = significantStart == numberEnd;
+            hash = NaturalHash.mixNumber(hash,
+                    zero ? 0 : lexer.isMinus(text.charAt(numberStart)) ? -1 : 1,
+                    zero ? 0 : lexer.exponent(text, numberStart, significantStart, numberEnd),
+                    text, significantStart, NaturalLexer.significantEnd(text, significantStart, numberEnd));
+            start = numberEnd;
+        }
+
+        return NaturalHash.finish(hash);
+    }
+
+    private long mixText(long hash, CharSequence text, int start, int end) {
+        start = lexer.trimStart(text, start, end);
+        end = lexer.trimEnd(text, start, end);
+        if (ordinalText != null) return NaturalHash.mix(ordinalText.mix(hash, text, start, end), NaturalHash.textEnd);
+        Collator collator = collator();
+
+        if (collator instanceof RuleBasedCollator) {
+            // Text which collates equal has equal primary weights at any strength.
+            if (start < end) {
+                RuleBasedCollator ruleCollator = (RuleBasedCollator) collator;
+                CollationElementIterator elements = lexer.mergesWhitespace()
+                        ? ruleCollator.getCollationElementIterator(new TextSegmentIterator(text, start, end))
+                        : ruleCollator.getCollationElementIterator(lexer.copyText(text, start, end));
+
+                int order;
+
+                while ((order = elements.next()) != CollationElementIterator.NULLORDER) {
+                    int primaryOrder = CollationElementIterator.primaryOrder(order);
+                    if (primaryOrder != 0) hash = NaturalHash.mix(hash, primaryOrder);
+                }
+            }
+        } else {
+            for (byte b : collator.getCollationKey(lexer.copyText(text, start, end)).toByteArray()) {
+                hash = NaturalHash.mix(hash, b);
+            }
+        }
+
+        return NaturalHash.mix(hash, NaturalHash.textEnd);
+    }
+
+    /**
+     * Create a key of a string which compares with other keys created by this comparator in the same order as this
+     * comparator compares their strings. Useful when the same strings are compared many times.
+     *
+     * @param text The string to create a key for.
+     * @return The sort key of the string.
+     */
+    public NaturalSortKey getSortKey(T text) {
+        NaturalSortKeyBuilder key = new NaturalSortKeyBuilder();
+        appendSortKey(key, text);
+        return new NaturalSortKey(text, key.toByteArray());
+    }
+
+    /**
+     * Create the {@link NaturalSortKey#prefix() prefix} of the sort key of a string, without creating the segments of
+     * the key after the prefix.
+     */
+    long getSortKeyPrefix(T text) {
+        NaturalSortKeyBuilder key = new NaturalSortKeyBuilder(NaturalSortKey.prefixLength);
+        appendSortKey(key, text);
+        return key.prefix();
+    }
+
+    private void appendSortKey(NaturalSortKeyBuilder key, CharSequence text) {
+        int length = text.length();
+        int start = 0;
+
+        while (true) {
+            int numberStart = lexer.numberStart(text, start, length);
+            key.appendText(textKey(text, start, numberStart));
+            if (numberStart == length || key.isFull()) break;
+            key.appendTextEnd();
+
+            int numberEnd = lexer.numberEnd(text, numberStart, length);
+            int significantStart = NaturalLexer.significantStart(text, numberStart, numberEnd);
+            key.appendNumber(
+                    lexer.isMinus(text.charAt(numberStart)),
+                    lexer.exponent(text, numberStart, significantStart, numberEnd),
+                    text, significantStart, numberEnd);
+            start = numberEnd;
+        }
+    }
+
+    /**
+     * Parse a string once to compare it with many other strings faster than this comparator compares two strings.
+     *
+     * @param text The string to prepare.
+     * @return The prepared string, comparing with other strings like this comparator.
+     */
+    public PreparedKey<T> prepare(T text) {
+        return new PreparedKey<T>(text, this);
     }
 
     @Override
     public int compare(T lhs, T rhs) {
-        // Match strings against number pattern and compare the segments in each string one by one.
-        Matcher lhsMatcher = decimalChunkPatten.matcher(lhs);
-        Matcher rhsMatcher = decimalChunkPatten.matcher(rhs);
-
-        // Start indexes of final non-number segment. For comparing the last text part of the strings.
-        int lhsEnd = 0;
-        int rhsEnd = 0;
-
-        while (lhsMatcher.find() && rhsMatcher.find()) {
-            String lhsTextPart = lhsMatcher.group(1);
-            String rhsTextPart = rhsMatcher.group(1);
-            String lhsNumberPart = lhsMatcher.group(2);
-            lhsNumberPart = minusCharPatten.matcher(lhsNumberPart).replaceAll("-");
-            lhsNumberPart = groupingCharPatten.matcher(lhsNumberPart).replaceAll("");
-            lhsNumberPart = deicmalCharPatten.matcher(lhsNumberPart).replaceAll(".");
-            String rhsNumberPart = rhsMatcher.group(2);
-            rhsNumberPart = minusCharPatten.matcher(rhsNumberPart).replaceAll("-");
-            rhsNumberPart = groupingCharPatten.matcher(rhsNumberPart).replaceAll("");
-            rhsNumberPart = deicmalCharPatten.matcher(rhsNumberPart).replaceAll(".");
-
-            // Compare prefix text part of match.
-            int textCompare = textCollator.compare(lhsTextPart, rhsTextPart);
+        if (tokenCache != null) return compareTokens(cachedTokens(lhs), cachedTokens(rhs));
+        return compare(lhs, 0, lhs.length(), rhs, 0, rhs.length());
+    }
+
+    /**
+     * Compare ranges of two character arrays, such as slices of one large array of text, without copying them.
+     *
+     * @see #compare(CharSequence, int, int, CharSequence, int, int)
+     */
+    public int compare(char[] lhs, int lhsStart, int lhsEnd, char[] rhs, int rhsStart, int rhsEnd) {
+        CharArrayText[] views = charArrayViews.get();
+
+        try {
+            return compare(views[0].view(lhs), lhsStart, lhsEnd, views[1].view(rhs), rhsStart, rhsEnd);
+        } finally {
+            // Don't keep the arrays reachable from the thread.
+            views[0].view(null);
+            views[1].view(null);
+        }
+    }
+
+    /**
+     * Compare two ranges of UTF-8 encoded text, such as lines of a memory mapped file, without decoding them up front
+     * or allocating. Characters other than ASCII are only decoded if the comparison reaches them. Gives the same result
+     * as comparing the decoded text.
+     *
+     * @param lhs The buffer containing the first range.
+     * @param lhsStart The index of the first byte of the first range.
+     * @param lhsEnd The index after the last byte of the first range.
+     * @param rhs The buffer containing the second range.
+     * @param rhsStart The index of the first byte of the second range.
+     * @param rhsEnd The index after the last byte of the second range.
+     * @return A negative number, zero or a positive number as the first range orders before, equal to or after the
+     *         second.
+     */
+    public int compare(ByteBuffer lhs, int lhsStart, int lhsEnd, ByteBuffer rhs, int rhsStart, int rhsEnd) {
+        Utf8Text[] views = utf8Views.get();
+        Utf8Text lhsText = views[0];
+        Utf8Text rhsText = views[1];
+
+        try {
+            // Comparing the bytes as characters is exact as long as no character other than ASCII is read.
+            lhsText.viewAscii(lhs, lhsStart, lhsEnd);
+            rhsText.viewAscii(rhs, rhsStart, rhsEnd);
+            int asciiCompare = compare(lhsText, 0, lhsText.length(), rhsText, 0, rhsText.length());
+            if (!lhsText.readNonAscii() && !rhsText.readNonAscii()) return asciiCompare;
+
+            CharSequence lhsChars = lhsText.viewDecoded(lhs, lhsStart, lhsEnd)
+                    ? lhsText
+                    : Utf8Text.decode(lhs, lhsStart, lhsEnd);
+            CharSequence rhsChars = rhsText.viewDecoded(rhs, rhsStart, rhsEnd)
+                    ? rhsText
+                    : Utf8Text.decode(rhs, rhsStart, rhsEnd);
+            return compare(lhsChars, 0, lhsChars.length(), rhsChars, 0, rhsChars.length());
+        } finally {
+            // Don't keep the buffers reachable from the thread.
+            lhsText.release();
+            rhsText.release();
+        }
+    }
+
+    /**
+     * Compare ranges of two strings of any type, such as {@link CharBuffer}s, without copying them. Ranges are always
+     * compared directly, even by a comparator created with {@link #cached(int)}.
+     *
+     * @param lhs The string containing the first range.
+     * @param lhsStart The index of the first character of the first range.
+     * @param lhsEnd The index after the last character of the first range.
+     * @param rhs The string containing the second range.
+     * @param rhsStart The index of the first character of the second range.
+     * @param rhsEnd The index after the last character of the second range.
+     * @return A negative number, zero or a positive number as the first range orders before, equal to or after the
+     *         second.
+     */
+    public int compare(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        // Segments which are identical in both strings compare equal, so skip any common prefix of whole segments.
+        int prefixLength = NaturalLexer.commonPrefixLength(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd);
+        if (lhsStart + prefixLength == lhsEnd && rhsStart + prefixLength == rhsEnd) return 0;
+        int segmentOffset = lexer.segmentStartBefore(lhs, lhsStart, lhsStart + prefixLength) - lhsStart;
+
+        // Scan both strings for numbers in lockstep and compare the segments in each string one by one.
+        lhsStart += segmentOffset;
+        rhsStart += segmentOffset;
+
+        while (true) {
+            int lhsNumberStart = lexer.numberStart(lhs, lhsStart, lhsEnd);
+            int rhsNumberStart = lexer.numberStart(rhs, rhsStart, rhsEnd);
+
+            // Compare text part of the segment.
+            int textCompare = compareText(lhs, lhsStart, lhsNumberStart, rhs, rhsStart, rhsNumberStart);
             if (textCompare != 0) return textCompare;
 
-            try {
-                // Parse numbers as big decimal and compare.
-                BigDecimal lhsDecimal = (BigDecimal) decimalFormat.parse(lhsNumberPart);
-                BigDecimal rhsDecimal = (BigDecimal) decimalFormat.parse(rhsNumberPart);
-
-                int numberCompare = lhsDecimal.compareTo(rhsDecimal);
-                if (numberCompare != 0) return numberCompare;
-            } catch (NumberFormatException | ParseException ex) {
-                // Should be ignorable barring some mismatch between DecimalFormat and the number regex.
-                // In which case we compare the numbers as text.
-                int numberCompare = textCollator.compare(lhsNumberPart, rhsNumberPart);
-                if (numberCompare != 0) return numberCompare;
-            }
+            // The string which ends first orders first.
+            boolean lhsHasNumber = lhsNumberStart < lhsEnd;
+            boolean rhsHasNumber = rhsNumberStart < rhsEnd;
+            if (!lhsHasNumber || !rhsHasNumber) return lhsHasNumber ? 1 : rhsHasNumber ? -1 : 0;
+
+            int lhsNumberEnd = lexer.numberEnd(lhs, lhsNumberStart, lhsEnd);
+            int rhsNumberEnd = lexer.numberEnd(rhs, rhsNumberStart, rhsEnd);
+            int numberCompare = lexer.compareNumbers(
+                    lhs, lhsNumberStart, lhsNumberEnd, rhs, rhsNumberStart, rhsNumberEnd);
+            if (numberCompare != 0) return numberCompare;
+
+            lhsStart = lhsNumberEnd;
+            rhsStart = rhsNumberEnd;
+        }
+    }
+
+    private int compareText(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        // Ignore whitespace around the text.
+        lhsStart = lexer.trimStart(lhs, lhsStart, lhsEnd);
+        lhsEnd = lexer.trimEnd(lhs, lhsStart, lhsEnd);
+        rhsStart = lexer.trimStart(rhs, rhsStart, rhsEnd);
+        rhsEnd = lexer.trimEnd(rhs, rhsStart, rhsEnd);
+
+        // Identical text needs no collation, which avoids copying it into strings for the collator.
+        if (lexer.equalText(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd)) return 0;
+        if (ordinalText != null) return ordinalText.compare(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd);
+
+        // Most text is collated with the looked up weights of its characters, without calling the collator.
+        if (textWeights != null
+                && textWeights.covers(lhs, lhsStart, lhsEnd)
+                && textWeights.covers(rhs, rhsStart, rhsEnd)) {
+            return textWeights.compare(lhs, lhsStart, lhsEnd, rhs, rhsStart, rhsEnd);
+        }
+
+        return collator().compare(
+                lexer.copyText(lhs, lhsStart, lhsEnd),
+                lexer.copyText(rhs, rhsStart, rhsEnd));
+    }
+
+    private byte[] textKey(CharSequence text, int start, int end) {
+        if (ordinalText != null) {
+            start = lexer.trimStart(text, start, end);
+            return ordinalText.key(text, start, lexer.trimEnd(text, start, end));
+        }
+
+        return collator().getCollationKey(lexer.segmentText(text, start, end)).toByteArray();
+    }
+
+    private NaturalTokens cachedTokens(T text) {
+        String key = text.toString();
+        NaturalTokens tokens = tokenCache.get(key);
+
+        if (tokens == null) {
+            tokens = tokenize(key);
+            tokenCache.put(key, tokens);
+        }
+
+        return tokens;
+    }
+
+    NaturalTokens tokenize(CharSequence text) {
+        int length = text.length();
+        int numberCount = 0;
+
+        for (int i = lexer.numberStart(text, 0, length); i < length; i = lexer.numberStart(text, i, length)) {
+            i = lexer.numberEnd(text, i, length);
+            numberCount++;
+        }
+
+        NaturalTokens tokens = new NaturalTokens(numberCount);
+        int start = 0;
+
+        for (int i = 0; i < numberCount; i++) {
+            int numberStart = lexer.numberStart(text, start, length);
+            int numberEnd = lexer.numberEnd(text, numberStart, length);
+            int significantStart = NaturalLexer.significantStart(text, numberStart, numberEnd);
+            boolean zero = significantStart == numberEnd;
+
+            tokens.texts[i] = lexer.segmentText(text, start, numberStart);
+            tokens.signs[i] = zero ? 0 : lexer.isMinus(text.charAt(numberStart)) ? -1 : 1;
+            tokens.exponents[i] = zero ? 0 : lexer.exponent(text, numberStart, significantStart, numberEnd);
+            tokens.digits[i] = NaturalLexer.significantDigits(text, significantStart, numberEnd);
+            start = numberEnd;
+        }
+
+        tokens.texts[numberCount] = lexer.segmentText(text, start, length);
+        return tokens;
+    }
+
+    /**
+     * Hash a parsed string, with the same result as {@link #naturalHash} of the string.
+     */
+    long hashTokens(NaturalTokens tokens) {
+        long hash = NaturalHash.seed;
+
+        for (int i = 0; i < tokens.numberCount(); i++) {
+            String text = tokens.texts[i];
+            String digits = tokens.digits[i];
+            hash = mixText(hash, text, 0, text.length());
+            hash = NaturalHash.mixNumber(hash, tokens.signs[i], tokens.exponents[i], digits, 0, digits.length());
+        }
+
+        String text = tokens.texts[tokens.numberCount()];
+        return NaturalHash.finish(mixText(hash, text, 0, text.length()));
+    }
+
+    /**
+     * Compare two parsed strings, with the same result as comparing the strings.
+     */
+    int compareTokens(NaturalTokens lhs, NaturalTokens rhs) {
+        for (int i = 0; ; i++) {
+            String lhsText = lhs.texts[i];
+            String rhsText = rhs.texts[i];
+            int textCompare = compareText(lhsText, 0, lhsText.length(), rhsText, 0, rhsText.length());
+            if (textCompare != 0) return textCompare;
+
+            boolean lhsHasNumber = i < lhs.numberCount();
+            boolean rhsHasNumber = i < rhs.numberCount();
+            if (!lhsHasNumber || !rhsHasNumber) return lhsHasNumber ? 1 : rhsHasNumber ? -1 : 0;
+
+            int numberCompare = NaturalTokens.compareNumbers(lhs, i, rhs, i);
+            if (numberCompare != 0) return numberCompare;
+        }
+    }
 
-            lhsEnd = lhsMatcher.end();
-            rhsEnd = rhsMatcher.end();
+    /**
+     * Compare a parsed string with a range of a string, with the same result as comparing the strings. The range is
+     * only scanned up to the first segment which differs.
+     */
+    int compareTokens(NaturalTokens lhs, CharSequence rhs, int rhsStart, int rhsEnd) {
+        int start = rhsStart;
+
+        for (int i = 0; ; i++) {
+            int numberStart = lexer.numberStart(rhs, start, rhsEnd);
+            String lhsText = lhs.texts[i];
+            int textCompare = compareText(lhsText, 0, lhsText.length(), rhs, start, numberStart);
+            if (textCompare != 0) return textCompare;
+
+            boolean lhsHasNumber = i < lhs.numberCount();
+            boolean rhsHasNumber = numberStart < rhsEnd;
+            if (!lhsHasNumber || !rhsHasNumber) return lhsHasNumber ? 1 : rhsHasNumber ? -1 : 0;
+
+            int numberEnd = lexer.numberEnd(rhs, numberStart, rhsEnd);
+            int numberCompare = lexer.compareNumber(
+                    lhs.signs[i], lhs.exponents[i], lhs.digits[i], rhs, numberStart, numberEnd);
+            if (numberCompare != 0) return numberCompare;
+
+            start = numberEnd;
+        }
+    }
+
+    /**
+     * <p>Builder of comparators with only the parts of natural ordering that are needed. By default a comparator is
+     * built like {@link #NaturalOrderComparator(Locale)} for the default locale. Every disabled part of the number
+     * grammar is skipped entirely when scanning strings, so for example a comparator of non-negative integers without
+     * grouping only ever looks for runs of digits.</p>
+     *
+     * <p>Disabling a part changes the order of strings using it: a minus sign, grouping separator or decimal separator
+     * which isn't recognized is compared as text, and whitespace which isn't merged is compared as is.</p>
+     */
+    public static final class Builder {
+
+        // Separators of the root locale, recognized by ordinal comparators without a locale or symbols.
+        private static final char ordinalMinusChar = '-';
+        private static final char ordinalGroupingChar = ',';
+        private static final char ordinalDecimalChar = '.';
+
+        private Locale locale = null;
+        private Collator textCollator = null;
+        private DecimalFormatSymbols symbols = null;
+        private int strength = -1;
+        private boolean negativeNumbers = true;
+        private boolean groupedNumbers = true;
+        private boolean decimalNumbers = true;
+        private boolean mergeWhitespace = true;
+        private boolean concurrent = false;
+        private CaseFolding ordinalCaseFolding = null;
+
+        private Builder() {
+        }
+
+        /**
+         * Use the collator and decimal format symbols of a locale, unless they are set separately.
+         */
+        public Builder locale(Locale locale) {
+            this.locale = locale;
+            return this;
+        }
+
+        /**
+         * Collate text with a copy of a collator instead of the secondary strength collator of the locale.
+         */
+        public Builder collator(Collator textCollator) {
+            this.textCollator = (Collator) textCollator.clone();
+            return this;
+        }
+
+        /**
+         * Recognize numbers with the minus sign and separators of a set of symbols instead of those of the locale.
+         */
+        public Builder symbols(DecimalFormatSymbols symbols) {
+            this.symbols = symbols;
+            return this;
+        }
+
+        /**
+         * Set the strength of the collator, such as {@link Collator#PRIMARY} to also ignore accents.
+         */
+        public Builder strength(int strength) {
+            this.strength = strength;
+            return this;
         }
 
-        // Ignore whitespace on last compare
-        while (lhsEnd < lhs.length() && isWhitespace(lhs.charAt(lhsEnd))) {
-            lhsEnd++;
+        /**
+         * Whether a minus sign before a number makes the number negative. Enabled by default.
+         */
+        public Builder negativeNumbers(boolean negativeNumbers) {
+            this.negativeNumbers = negativeNumbers;
+            return this;
+        }
+
+        /**
+         * Whether numbers may have grouping separators between their digits, like 1,000,000. Enabled by default.
+         */
+        public Builder groupedNumbers(boolean groupedNumbers) {
+            this.groupedNumbers = groupedNumbers;
+            return this;
+        }
+
+        /**
+         * Whether numbers may have a decimal fraction. Enabled by default.
+         */
+        public Builder decimalNumbers(boolean decimalNumbers) {
+            this.decimalNumbers = decimalNumbers;
+            return this;
+        }
+
+        /**
+         * Whether whitespace around text is ignored and runs of whitespace within text compare equal to a single space.
+         * Enabled by default.
+         */
+        public Builder mergeWhitespace(boolean mergeWhitespace) {
+            this.mergeWhitespace = mergeWhitespace;
+            return this;
+        }
+
+        /**
+         * Whether the comparator may be used by many threads at once without contention, like comparators created by
+         * {@link #concurrent(Locale)}. Disabled by default.
+         */
+        public Builder concurrent(boolean concurrent) {
+            this.concurrent = concurrent;
+            return this;
+        }
+
+        /**
+         * Compare text by Unicode code point instead of collating it, with a case folding such as
+         * {@link CaseFolding#ASCII}, while recognizing numbers as usual. Meant for machine generated strings like
+         * identifiers and file names, which have no linguistic order. Comparisons never allocate and the comparator
+         * needs no collator, so the collator and strength are ignored and threads never wait on each other. Unless a
+         * locale or symbols are set, numbers are recognized with the minus sign and separators of the root locale,
+         * without looking up any locale data.
+         */
+        public Builder ordinal(CaseFolding caseFolding) {
+            this.ordinalCaseFolding = caseFolding;
+            return this;
+        }
+
+        public <T extends CharSequence> NaturalOrderComparator<T> build() {
+            if (ordinalCaseFolding != null) {
+                NaturalLexer lexer = symbols == null && locale == null
+                        ? new NaturalLexer(ordinalMinusChar, ordinalGroupingChar, ordinalDecimalChar,
+                                negativeNumbers, groupedNumbers, decimalNumbers, mergeWhitespace)
+                        : lexer();
+                return new NaturalOrderComparator<T>(new OrdinalText(ordinalCaseFolding, mergeWhitespace), lexer);
+            }
+
+            Collator collator = textCollator != null
+                    ? (Collator) textCollator.clone()
+                    : createDefaultCollator(locale != null ? locale : Locale.getDefault());
+            if (strength >= 0) collator.setStrength(strength);
+            return new NaturalOrderComparator<T>(collator, lexer(), concurrent);
         }
 
-        while (rhsEnd < rhs.length() && isWhitespace(rhs.charAt(rhsEnd))) {
-            rhsEnd++;
+        private NaturalLexer lexer() {
+            DecimalFormatSymbols lexerSymbols = symbols != null
+                    ? symbols
+                    : new DecimalFormatSymbols(locale != null ? locale : Locale.getDefault());
+            return new NaturalLexer(lexerSymbols, negativeNumbers, groupedNumbers, decimalNumbers, mergeWhitespace);
         }
 
-        // Compare final segment where one or both of lhs or rhs have no number part.
-        return textCollator.compare(lhs.subSequence(lhsEnd, lhs.length()), rhs.subSequence(rhsEnd, rhs.length()));
     }
 
 }
@@ -0,0 +1,208 @@
+package com.devexed.naturalsort;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * <p>Searching of arrays and lists sorted in natural order. The string searched for is parsed once and compared with
+ * the sorted strings through a {@link PreparedKey}, or its sort key is compared with an array of precomputed sort keys,
+ * rather than parsing it again on every comparison.</p>
+ *
+ * <p>All searches return the same positions as {@link java.util.Collections#binarySearch(List, Object,
+ * java.util.Comparator)} and {@link Arrays#binarySearch(Object[], Object, java.util.Comparator)} with the same
+ * comparator. Lists should be random access.</p>
+ */
+public final class NaturalSearch {
+
+    private NaturalSearch() {
+    }
+
+    /**
+     * Search a sorted list for a string.
+     *
+     * @param list The list sorted in the order of the comparator.
+     * @param key The string to search for.
+     * @param comparator The comparator the list is sorted with.
+     * @return The index of a string equal to the key, or <code>-(insertion point) - 1</code> if there is none.
+     */
+    public static <T extends CharSequence> int binarySearch(List<? extends T> list, T key,
+                                                            NaturalOrderComparator<? super T> comparator) {
+        PreparedKey<? super T> preparedKey = comparator.prepare(key);
+        return binarySearch(list.size(), i -> -preparedKey.compareTo(list.get(i)));
+    }
+
+    /**
+     * Search a sorted array for a string.
+     *
+     * @see #binarySearch(List, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> int binarySearch(T[] array, T key,
+                                                            NaturalOrderComparator<? super T> comparator) {
+        PreparedKey<? super T> preparedKey = comparator.prepare(key);
+        return binarySearch(array.length, i -> -preparedKey.compareTo(array[i]));
+    }
+
+    /**
+     * Search sorted sort keys for the key of a string.
+     *
+     * @param keys The sort keys, created by the comparator and sorted.
+     * @see #binarySearch(List, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> int binarySearch(NaturalSortKey[] keys, T key,
+                                                            NaturalOrderComparator<? super T> comparator) {
+        byte[] keyBytes = comparator.getSortKey(key).bytes();
+        return binarySearch(keys.length, i -> NaturalSortKey.compare(keys[i].bytes(), keyBytes));
+    }
+
+    /**
+     * Find the first string of a sorted list which doesn't order before a string.
+     *
+     * @param list The list sorted in the order of the comparator.
+     * @param key The string to search for.
+     * @param comparator The comparator the list is sorted with.
+     * @return The index of the first string equal to or after the key, or the size of the list if there is none.
+     */
+    public static <T extends CharSequence> int lowerBound(List<? extends T> list, T key,
+                                                          NaturalOrderComparator<? super T> comparator) {
+        PreparedKey<? super T> preparedKey = comparator.prepare(key);
+        return bound(list.size(), i -> preparedKey.compareTo(list.get(i)) <= 0);
+    }
+
+    /**
+     * @see #lowerBound(List, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> int lowerBound(T[] array, T key,
+                                                          NaturalOrderComparator<? super T> comparator) {
+        PreparedKey<? super T> preparedKey = comparator.prepare(key);
+        return bound(array.length, i -> preparedKey.compareTo(array[i]) <= 0);
+    }
+
+    /**
+     * @param keys The sort keys, created by the comparator and sorted.
+     * @see #lowerBound(List, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> int lowerBound(NaturalSortKey[] keys, T key,
+                                                          NaturalOrderComparator<? super T> comparator) {
+        byte[] keyBytes = comparator.getSortKey(key).bytes();
+        return bound(keys.length, i -> NaturalSortKey.compare(keys[i].bytes(), keyBytes) >= 0);
+    }
+
+    /**
+     * Find the first string of a sorted list which orders after a string.
+     *
+     * @param list The list sorted in the order of the comparator.
+     * @param key The string to search for.
+     * @param comparator The comparator the list is sorted with.
+     * @return The index of the first string after the key, or the size of the list if there is none.
+     */
+    public static <T extends CharSequence> int upperBound(List<? extends T> list, T key,
+                                                          NaturalOrderComparator<? super T> comparator) {
+        PreparedKey<? super T> preparedKey = comparator.prepare(key);
+        return bound(list.size(), i -> preparedKey.compareTo(list.get(i)) < 0);
+    }
+
+    /**
+     * @see #upperBound(List, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> int upperBound(T[] array, T key,
+                                                          NaturalOrderComparator<? super T> comparator) {
+        PreparedKey<? super T> preparedKey = comparator.prepare(key);
+        return bound(array.length, i -> preparedKey.compareTo(array[i]) < 0);
+    }
+
+    /**
+     * @param keys The sort keys, created by the comparator and sorted.
+     * @see #upperBound(List, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> int upperBound(NaturalSortKey[] keys, T key,
+                                                          NaturalOrderComparator<? super T> comparator) {
+        byte[] keyBytes = comparator.getSortKey(key).bytes();
+        return bound(keys.length, i -> NaturalSortKey.compare(keys[i].bytes(), keyBytes) > 0);
+    }
+
+    /**
+     * Find the strings of a sorted list from one string up to another.
+     *
+     * @param list The list sorted in the order of the comparator.
+     * @param from The first string of the range, included.
+     * @param to The string after the range, excluded.
+     * @param comparator The comparator the list is sorted with.
+     * @return A view of the strings equal to or after <code>from</code> and before <code>to</code>.
+     */
+    public static <T extends CharSequence> List<T> range(List<T> list, T from, T to,
+                                                         NaturalOrderComparator<? super T> comparator) {
+        int start = lowerBound(list, from, comparator);
+        int end = Math.max(start, lowerBound(list, to, comparator));
+        return list.subList(start, end);
+    }
+
+    /**
+     * @see #range(List, CharSequence, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> List<T> range(T[] array, T from, T to,
+                                                         NaturalOrderComparator<? super T> comparator) {
+        return range(Arrays.asList(array), from, to, comparator);
+    }
+
+    /**
+     * @param keys The sort keys, created by the comparator and sorted.
+     * @return A view of the keys of the strings equal to or after <code>from</code> and before <code>to</code>.
+     * @see #range(List, CharSequence, CharSequence, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> List<NaturalSortKey> range(NaturalSortKey[] keys, T from, T to,
+                                                                      NaturalOrderComparator<? super T> comparator) {
+        int start = lowerBound(keys, from, comparator);
+        int end = Math.max(start, lowerBound(keys, to, comparator));
+        return Arrays.asList(keys).subList(start, end);
+    }
+
+    /**
+     * Binary search with the same steps as {@link java.util.Collections#binarySearch}.
+     *
+     * @param compareWithKey Compares the element at an index with the key.
+     */
+    private static int binarySearch(int size, IntUnaryOperator compareWithKey) {
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int keyCompare = compareWithKey.applyAsInt(middle);
+
+            if (keyCompare < 0) {
+                low = middle + 1;
+            } else if (keyCompare > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    /**
+     * @param isAfter Whether the element at an index is at or after the bound, which is false for all elements before
+     *                some index and true for all elements from it.
+     * @return The first index of an element at or after the bound.
+     */
+    private static int bound(int size, IntPredicate isAfter) {
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (isAfter.test(middle)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return low;
+    }
+
+}
@@ -0,0 +1,407 @@
+package com.devexed.naturalsort;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.Collector;
+
+/**
+ * <p>Sorting of strings in natural order. Rather than comparing the strings themselves, which parses both strings on
+ * every comparison, the sort key of each string is created once and the keys are sorted instead.</p>
+ *
+ * <p>All sorts are stable, sorting strings which compare equal in the order they were given.</p>
+ */
+public final class NaturalSort {
+
+    // Ranges no longer than this are insertion sorted rather than merge sorted.
+    private static final int insertionSortThreshold = 16;
+
+    // Abbreviated keys are only used if at least one in this many sampled keys has a distinct prefix.
+    private static final int prefixSampleSize = 512;
+    private static final int minDistinctPrefixRatio = 8;
+
+    private NaturalSort() {
+    }
+
+    /**
+     * Sort an array in natural order for the default locale, using all processors.
+     *
+     * @see #parallelSort(CharSequence[], NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void parallelSort(T[] array) {
+        parallelSort(array, NaturalOrderComparator.<T>forLocale(Locale.getDefault()));
+    }
+
+    /**
+     * Sort an array in the order of a comparator using all processors. The sort keys of all strings are created in
+     * parallel on the common fork-join pool, then sorted with {@link Arrays#parallelSort(Comparable[])}.
+     *
+     * @param array The array to sort.
+     * @param comparator The comparator to create the sort keys with. Should be created with
+     *                   {@link NaturalOrderComparator#concurrent} to avoid threads waiting on each other.
+     */
+    public static <T extends CharSequence> void parallelSort(T[] array,
+                                                             NaturalOrderComparator<? super T> comparator) {
+        NaturalSortKey[] keys = new NaturalSortKey[array.length];
+        Arrays.parallelSetAll(keys, i -> comparator.getSortKey(array[i]));
+        Arrays.parallelSort(keys);
+        for (int i = 0; i < keys.length; i++) array[i] = source(keys[i]);
+    }
+
+    /**
+     * Sort a list in natural order for the default locale, using all processors.
+     *
+     * @see #parallelSort(List, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void parallelSort(List<T> list) {
+        parallelSort(list, NaturalOrderComparator.<T>forLocale(Locale.getDefault()));
+    }
+
+    /**
+     * Sort a list in the order of a comparator using all processors.
+     *
+     * @see #parallelSort(CharSequence[], NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void parallelSort(List<T> list,
+                                                             NaturalOrderComparator<? super T> comparator) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray(new CharSequence[0]);
+        parallelSort(array, comparator);
+        setAll(list, array);
+    }
+
+    /**
+     * Sort an array in the order of a comparator with a most significant digit first radix sort of the sort keys of the
+     * strings. Rather than comparing whole keys, keys are distributed into buckets byte by byte, so bytes shared by
+     * many keys, such as common prefixes, are only looked at once per key.
+     *
+     * @param array The array to sort.
+     * @param comparator The comparator to create the sort keys with.
+     */
+    public static <T extends CharSequence> void radixSort(T[] array, NaturalOrderComparator<? super T> comparator) {
+        NaturalSortKey[] keys = new NaturalSortKey[array.length];
+        for (int i = 0; i < keys.length; i++) keys[i] = comparator.getSortKey(array[i]);
+        MsdRadixSort.sort(keys, false);
+        for (int i = 0; i < keys.length; i++) array[i] = source(keys[i]);
+    }
+
+    /**
+     * Sort a list in the order of a comparator with a radix sort of the sort keys of the strings.
+     *
+     * @see #radixSort(CharSequence[], NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void radixSort(List<T> list, NaturalOrderComparator<? super T> comparator) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray(new CharSequence[0]);
+        radixSort(array, comparator);
+        setAll(list, array);
+    }
+
+    /**
+     * Sort an array in the order of a comparator with a radix sort of the sort keys of the strings, using all
+     * processors both to create the keys and to sort large buckets.
+     *
+     * @param array The array to sort.
+     * @param comparator The comparator to create the sort keys with. Should be created with
+     *                   {@link NaturalOrderComparator#concurrent} to avoid threads waiting on each other.
+     * @see #radixSort(CharSequence[], NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void parallelRadixSort(T[] array,
+                                                                  NaturalOrderComparator<? super T> comparator) {
+        NaturalSortKey[] keys = new NaturalSortKey[array.length];
+        Arrays.parallelSetAll(keys, i -> comparator.getSortKey(array[i]));
+        MsdRadixSort.sort(keys, true);
+        for (int i = 0; i < keys.length; i++) array[i] = source(keys[i]);
+    }
+
+    /**
+     * Sort a list in the order of a comparator with a radix sort of the sort keys of the strings, using all
+     * processors.
+     *
+     * @see #parallelRadixSort(CharSequence[], NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void parallelRadixSort(List<T> list,
+                                                                  NaturalOrderComparator<? super T> comparator) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray(new CharSequence[0]);
+        parallelRadixSort(array, comparator);
+        setAll(list, array);
+    }
+
+    /**
+     * Sort an array in the order of a comparator by abbreviated keys, like databases do. Each string is abbreviated to
+     * a 64-bit prefix of its sort key, built without the rest of the key. The prefixes are sorted as primitive longs
+     * and only strings with equal prefixes are compared with the comparator. Uses much less memory than keeping the
+     * sort key of every string.
+     *
+     * <p>Before sorting, the prefixes of the full keys of a sample of the strings are checked. When few of them differ,
+     * such as when all strings share a long common prefix, abbreviation is abandoned and the full sort keys are sorted
+     * instead.</p>
+     *
+     * @param array The array to sort.
+     * @param comparator The comparator to create the sort keys with and to compare strings with equal prefixes.
+     */
+    public static <T extends CharSequence> void abbreviatedSort(T[] array,
+                                                                NaturalOrderComparator<? super T> comparator) {
+        int sampleSize = Math.min(array.length, prefixSampleSize);
+        NaturalSortKey[] sampleKeys = new NaturalSortKey[sampleSize];
+        for (int i = 0; i < sampleSize; i++) sampleKeys[i] = comparator.getSortKey(array[sampleIndex(i, array.length)]);
+
+        if (!prefixesDiscriminate(sampleKeys)) {
+            NaturalSortKey[] keys = new NaturalSortKey[array.length];
+
+            for (int i = 0, sample = 0; i < keys.length; i++) {
+                boolean sampled = sample < sampleSize && i == sampleIndex(sample, array.length);
+                keys[i] = sampled ? sampleKeys[sample++] : comparator.getSortKey(array[i]);
+            }
+
+            Arrays.sort(keys);
+            for (int i = 0; i < keys.length; i++) array[i] = source(keys[i]);
+            return;
+        }
+
+        long[] prefixes = new long[array.length];
+
+        for (int i = 0, sample = 0; i < prefixes.length; i++) {
+            boolean sampled = sample < sampleSize && i == sampleIndex(sample, array.length);
+            prefixes[i] = sampled ? sampleKeys[sample++].prefix() : comparator.getSortKeyPrefix(array[i]);
+        }
+
+        int[] order = new int[array.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        mergeSort(order, order.clone(), 0, order.length, (i, j) -> {
+            int prefixCompare = Long.compareUnsigned(prefixes[i], prefixes[j]);
+            return prefixCompare != 0 ? prefixCompare : comparator.compare(array[i], array[j]);
+        });
+
+        T[] unsorted = array.clone();
+        for (int i = 0; i < order.length; i++) array[i] = unsorted[order[i]];
+    }
+
+    /**
+     * Sort a list in the order of a comparator by abbreviated keys.
+     *
+     * @see #abbreviatedSort(CharSequence[], NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> void abbreviatedSort(List<T> list,
+                                                                NaturalOrderComparator<? super T> comparator) {
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) list.toArray(new CharSequence[0]);
+        abbreviatedSort(array, comparator);
+        setAll(list, array);
+    }
+
+    /**
+     * @return The index of an element of an evenly spaced sample of an array, increasing with the index in the sample.
+     */
+    private static int sampleIndex(int sample, int length) {
+        return (int) ((long) sample * length / Math.min(length, prefixSampleSize));
+    }
+
+    /**
+     * Estimate whether abbreviated keys tell enough strings apart by counting the distinct prefixes of the keys of a
+     * sample of the strings.
+     */
+    private static boolean prefixesDiscriminate(NaturalSortKey[] sampleKeys) {
+        if (sampleKeys.length == 0) return true;
+
+        long[] prefixes = new long[sampleKeys.length];
+        for (int i = 0; i < prefixes.length; i++) prefixes[i] = sampleKeys[i].prefix();
+
+        Arrays.sort(prefixes);
+        int distinctCount = 1;
+        for (int i = 1; i < prefixes.length; i++) {
+            if (prefixes[i] != prefixes[i - 1]) distinctCount++;
+        }
+
+        return distinctCount * minDistinctPrefixRatio >= prefixes.length;
+    }
+
+    /**
+     * Select the first strings in natural order for the default locale.
+     *
+     * @see #topK(Iterable, int, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> List<T> topK(Iterable<? extends T> strings, int k) {
+        return topK(strings, k, NaturalOrderComparator.<T>forLocale(Locale.getDefault()));
+    }
+
+    /**
+     * Select the first strings in the order of a comparator, without sorting all of them. Takes time proportional to
+     * the number of strings times the logarithm of <code>k</code>, and only keeps <code>k</code> strings in memory.
+     * The result is the same as the first <code>k</code> strings of a stable sort.
+     *
+     * @param strings The strings to select from.
+     * @param k The largest number of strings to select.
+     * @param comparator The comparator to order strings with.
+     * @return The first <code>k</code> strings in order, or all strings if there are fewer.
+     */
+    public static <T extends CharSequence> List<T> topK(Iterable<? extends T> strings, int k,
+                                                        NaturalOrderComparator<? super T> comparator) {
+        TopK<T> topK = new TopK<T>(comparator, k);
+        for (T string : strings) topK.add(string);
+        return topK.values();
+    }
+
+    /**
+     * Collector selecting the first strings of a stream in the order of a comparator.
+     *
+     * @param k The largest number of strings to select.
+     * @param comparator The comparator to order strings with. Should be created with
+     *                   {@link NaturalOrderComparator#concurrent} when collecting a parallel stream.
+     * @see #topK(Iterable, int, NaturalOrderComparator)
+     */
+    public static <T extends CharSequence> Collector<T, ?, List<T>> toTopK(int k,
+                                                                         NaturalOrderComparator<? super T> comparator) {
+        return Collector.of(() -> new TopK<T>(comparator, k), TopK::add, TopK::addAll, TopK::values);
+    }
+
+    /**
+     * Partially sort a list in the order of a comparator, such as to show one page of a long list. Afterwards the
+     * elements from index <code>from</code> to index <code>to</code> are the same as if the whole list was sorted
+     * stably. The elements before them are also sorted and the elements after them keep their relative order.
+     *
+     * @param list The list to sort.
+     * @param from The index of the first element to sort into place.
+     * @param to The index after the last element to sort into place.
+     * @param comparator The comparator to order strings with.
+     */
+    public static <T extends CharSequence> void partialSort(List<T> list, int from, int to,
+                                                            NaturalOrderComparator<? super T> comparator) {
+        if (from < 0 || to > list.size() || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + " to " + to + " of list of size " + list.size());
+        }
+
+        TopK<T> topK = new TopK<T>(comparator, to);
+        for (T element : list) topK.add(element);
+
+        @SuppressWarnings("unchecked")
+        T[] array = (T[]) new CharSequence[list.size()];
+        boolean[] selected = new boolean[array.length];
+        int i = 0;
+
+        for (TopK.Candidate<T> candidate : topK.candidates()) {
+            array[i++] = candidate.value;
+            selected[(int) candidate.index] = true;
+        }
+
+        int index = 0;
+
+        for (T element : list) {
+            if (!selected[index++]) array[i++] = element;
+        }
+
+        setAll(list, array);
+    }
+
+    /**
+     * Sort slices of one large array of text, such as a string table, in the order of a comparator without creating a
+     * string for any slice. Slice <code>i</code> is the text from <code>starts[i]</code> up to <code>ends[i]</code>.
+     * The slices are compared directly with a stable merge sort, and both index arrays are reordered together.
+     *
+     * @param text The text containing all slices.
+     * @param starts The index of the first character of each slice.
+     * @param ends The index after the last character of each slice.
+     * @param comparator The comparator to compare slices with.
+     */
+    public static void sort(char[] text, int[] starts, int[] ends, NaturalOrderComparator<?> comparator) {
+        CharArrayText view = new CharArrayText(text);
+        sortSlices(starts, ends, (i, j) -> comparator.compare(view, starts[i], ends[i], view, starts[j], ends[j]));
+    }
+
+    /**
+     * Sort slices of UTF-8 encoded text, such as the lines of a memory mapped file, in the order of a comparator
+     * without creating a string for any slice. Characters other than ASCII are only decoded when a comparison reaches
+     * them.
+     *
+     * @param text The encoded text containing all slices.
+     * @param starts The index of the first byte of each slice.
+     * @param ends The index after the last byte of each slice.
+     * @param comparator The comparator to compare slices with.
+     * @see #sort(char[], int[], int[], NaturalOrderComparator)
+     */
+    public static void sort(ByteBuffer text, int[] starts, int[] ends, NaturalOrderComparator<?> comparator) {
+        sortSlices(starts, ends, (i, j) -> comparator.compare(text, starts[i], ends[i], text, starts[j], ends[j]));
+    }
+
+    private static void sortSlices(int[] starts, int[] ends, IntBinaryOperator comparator) {
+        if (starts.length != ends.length) throw new IllegalArgumentException("Slices must have a start and an end");
+
+        int[] order = new int[starts.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        mergeSort(order, order.clone(), 0, order.length, comparator);
+
+        int[] sortedStarts = new int[order.length];
+        int[] sortedEnds = new int[order.length];
+
+        for (int i = 0; i < order.length; i++) {
+            sortedStarts[i] = starts[order[i]];
+            sortedEnds[i] = ends[order[i]];
+        }
+
+        System.arraycopy(sortedStarts, 0, starts, 0, order.length);
+        System.arraycopy(sortedEnds, 0, ends, 0, order.length);
+    }
+
+    /**
+     * Stable top down merge sort of the range of an array of indexes, using a copy of the range as the buffer.
+     */
+    private static void mergeSort(int[] indexes, int[] buffer, int start, int end, IntBinaryOperator comparator) {
+        if (end - start <= insertionSortThreshold) {
+            for (int i = start + 1; i < end; i++) {
+                int index = indexes[i];
+                int j = i;
+
+                while (j > start && comparator.applyAsInt(indexes[j - 1], index) > 0) {
+                    indexes[j] = indexes[j - 1];
+                    j--;
+                }
+
+                indexes[j] = index;
+            }
+
+            return;
+        }
+
+        // Sort both halves of the buffer and merge them into the indexes, swapping roles at every level.
+        int middle = (start + end) >>> 1;
+        mergeSort(buffer, indexes, start, middle, comparator);
+        mergeSort(buffer, indexes, middle, end, comparator);
+
+        int i = start;
+        int j = middle;
+
+        for (int k = start; k < end; k++) {
+            if (j == end || (i < middle && comparator.applyAsInt(buffer[i], buffer[j]) <= 0)) {
+                indexes[k] = buffer[i++];
+            } else {
+                indexes[k] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * Replace the elements of a list with the elements of an array of the same size, like {@link java.util.Collections}
+     * does after sorting a list.
+     */
+    static <T> void setAll(List<T> list, T[] array) {
+        ListIterator<T> iterator = list.listIterator();
+
+        for (T element : array) {
+            iterator.next();
+            iterator.set(element);
+        }
+    }
+
+    /**
+     * @return The string a key was created from, which is always of the type of the strings sorted.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends CharSequence> T source(NaturalSortKey key) {
+        return (T) key.getSource();
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.devexed.naturalsort;
+
+import java.util.Arrays;
+
+/**
+ * <p>Binary key of a string in natural order, analogous to a {@link java.text.CollationKey}. Keys created by the same
+ * {@link NaturalOrderComparator} compare in the same order as the comparator compares their source strings, using only
+ * an unsigned comparison of the key bytes.</p>
+ *
+ * <p>Creating the key of each string once and comparing the keys is much faster than comparing the strings directly
+ * when the same strings are compared many times, such as when sorting.</p>
+ *
+ * @see NaturalOrderComparator#getSortKey(CharSequence)
+ */
+public final class NaturalSortKey implements Comparable<NaturalSortKey> {
+
+    static int compare(byte[] lhs, byte[] rhs) {
+        int length = Math.min(lhs.length, rhs.length);
+
+        for (int i = 0; i < length; i++) {
+            int byteCompare = (lhs[i] & 0xFF) - (rhs[i] & 0xFF);
+            if (byteCompare != 0) return byteCompare;
+        }
+
+        return lhs.length - rhs.length;
+    }
+
+    static final int prefixLength = 8;
+
+    static long prefix(byte[] key, int length) {
+        long prefix = 0;
+        for (int i = 0; i < prefixLength; i++) prefix = (prefix << 8) | (i < length ? key[i] & 0xFF : 0);
+        return prefix;
+    }
+
+    private final CharSequence source;
+    private final byte[] key;
+
+    NaturalSortKey(CharSequence source, byte[] key) {
+        this.source = source;
+        this.key = key;
+    }
+
+    /**
+     * @return The string this key was created from.
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * @return A copy of the bytes of the key, to be compared unsigned and most significant byte first.
+     */
+    public byte[] toByteArray() {
+        return key.clone();
+    }
+
+    byte[] bytes() {
+        return key;
+    }
+
+    /**
+     * @return The first eight bytes of the key, padded with zeros, to be compared unsigned. Keys with different
+     *         prefixes compare in the same order as the prefixes.
+     */
+    long prefix() {
+        return prefix(key, key.length);
+    }
+
+    @Override
+    public int compareTo(NaturalSortKey other) {
+        return compare(key, other.key);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NaturalSortKey && Arrays.equals(key, ((NaturalSortKey) other).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(key);
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.devexed.naturalsort;
+
+import java.util.Arrays;
+
+/**
+ * <p>Writes the bytes of a {@link NaturalSortKey}. A key is the sequence of the text and number segments of a string,
+ * each encoded so that an unsigned byte by byte comparison of two keys orders them like the segments themselves.</p>
+ *
+ * <p>Text is encoded as the bytes of its collation key. Text followed by a number is ended by two zero bytes, which
+ * order before the remainder of any longer collation key. Numbers are encoded as a sign byte, followed by the decimal
+ * exponent and the significant digits of their magnitude. Digits are packed two per byte and ended by a zero nibble.
+ * The magnitude bytes are inverted for negative numbers to reverse their order.</p>
+ */
+final class NaturalSortKeyBuilder {
+
+    private static final int negativeByte = 0x01;
+    private static final int zeroByte = 0x02;
+    private static final int positiveByte = 0x03;
+
+    // Exponents in this range are encoded as a single byte offset by 0x80, others as a marker and four bytes.
+    private static final int smallExponent = 0x3F;
+    private static final int smallExponentOffset = 0x80;
+    private static final int largeNegativeExponentByte = 0x40;
+    private static final int largePositiveExponentByte = 0xC0;
+
+    private final int limit;
+    private byte[] bytes;
+    private int length = 0;
+
+    NaturalSortKeyBuilder() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param limit The length after which any further bytes are dropped, for building only a prefix of a key.
+     */
+    NaturalSortKeyBuilder(int limit) {
+        this.limit = limit;
+        this.bytes = new byte[Math.min(limit, 32)];
+    }
+
+    void appendText(byte[] collationKey) {
+        int appended = Math.min(collationKey.length, limit - length);
+        ensureCapacity(appended);
+        System.arraycopy(collationKey, 0, bytes, length, appended);
+        length += appended;
+    }
+
+    void appendTextEnd() {
+        appendByte(0);
+        appendByte(0);
+    }
+
+    /**
+     * Append a number found by a lexer.
+     *
+     * @param negative True if the number has a minus sign.
+     * @param exponent The decimal exponent of the number as found by {@link NaturalLexer#exponent}.
+     * @param text The text containing the number.
+     * @param significantStart The index of the first non-zero digit of the number, or <code>end</code> if it is zero.
+     * @param end The index after the last digit of the number.
+     */
+    void appendNumber(boolean negative, int exponent, CharSequence text, int significantStart, int end) {
+        if (significantStart == end) {
+            appendByte(zeroByte);
+            return;
+        }
+
+        appendByte(negative ? negativeByte : positiveByte);
+        int magnitudeStart = length;
+        appendExponent(exponent);
+        appendDigits(text, significantStart, NaturalLexer.significantEnd(text, significantStart, end));
+
+        if (negative) {
+            for (int i = magnitudeStart; i < length; i++) bytes[i] = (byte) ~bytes[i];
+        }
+    }
+
+    private void appendExponent(int exponent) {
+        if (exponent >= -smallExponent && exponent <= smallExponent) {
+            appendByte(smallExponentOffset + exponent);
+        } else {
+            // Flip the sign bit to order negative exponents before positive ones.
+            int orderedExponent = exponent ^ Integer.MIN_VALUE;
+            appendByte(exponent < 0 ? largeNegativeExponentByte : largePositiveExponentByte);
+            appendByte(orderedExponent >>> 24);
+            appendByte(orderedExponent >>> 16);
+            appendByte(orderedExponent >>> 8);
+            appendByte(orderedExponent);
+        }
+    }
+
+    private void appendDigits(CharSequence text, int start, int end) {
+        // Digits are stored offset by one, leaving zero as the end marker which orders shorter numbers first.
+        int high = -1;
+
+        for (int i = start; i < end; i++) {
+            int digit = NaturalLexer.digit(text.charAt(i));
+            if (digit < 0) continue;
+
+            if (high < 0) {
+                high = digit + 1;
+            } else {
+                appendByte((high << 4) | (digit + 1));
+                high = -1;
+            }
+        }
+
+        appendByte(high < 0 ? 0 : high << 4);
+    }
+
+    private void appendByte(int b) {
+        if (length == limit) return;
+        ensureCapacity(1);
+        bytes[length++] = (byte) b;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+    }
+
+    /**
+     * @return True if the limit was reached, after which nothing more is appended.
+     */
+    boolean isFull() {
+        return length == limit;
+    }
+
+    /**
+     * @return The same prefix as {@link NaturalSortKey#prefix()} of the key built so far.
+     */
+    long prefix() {
+        return NaturalSortKey.prefix(bytes, length);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+}
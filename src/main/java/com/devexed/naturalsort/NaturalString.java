@@ -0,0 +1,80 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>A string ordered in natural order, for use as the key of sorted collections such as {@link java.util.TreeMap} and
+ * {@link java.util.concurrent.ConcurrentSkipListMap}. The string is parsed into its segments the first time it is
+ * compared and the parsed segments are kept, so later comparisons walk the parsed segments instead of the text.</p>
+ *
+ * <p>Natural strings compare, and are equal, according to the comparator they were created with. Only natural strings
+ * created with the same comparator should be compared to each other. Their hash code is consistent with their
+ * ordering, so strings which compare equal have equal hash codes.</p>
+ */
+public final class NaturalString implements Comparable<NaturalString>, CharSequence {
+
+    private final String text;
+    private final NaturalOrderComparator<?> comparator;
+
+    // Computed lazily. The arrays of the tokens are filled after they are created, so they are published through a
+    // volatile field for other threads to see them filled. Racing threads compute equal values.
+    private volatile NaturalTokens tokens;
+    private int hash; // Zero until computed, like String's.
+
+    public NaturalString(CharSequence text, NaturalOrderComparator<?> comparator) {
+        this.text = text.toString();
+        this.comparator = comparator;
+    }
+
+    private NaturalTokens tokens() {
+        NaturalTokens tokens = this.tokens;
+
+        if (tokens == null) {
+            tokens = comparator.tokenize(text);
+            this.tokens = tokens;
+        }
+
+        return tokens;
+    }
+
+    @Override
+    public int compareTo(NaturalString other) {
+        return comparator.compareTokens(tokens(), other.tokens());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof NaturalString && compareTo((NaturalString) other) == 0);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.hash;
+
+        if (hash == 0) {
+            hash = NaturalHash.fold(comparator.hashTokens(tokens()));
+            this.hash = hash;
+        }
+
+        return hash;
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+}
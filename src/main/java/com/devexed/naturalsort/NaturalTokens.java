@@ -0,0 +1,46 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>A string parsed into its natural order segments. Each segment is a piece of text, with whitespace trimmed and
+ * merged, followed by a number in canonical form. The final text segment is not followed by a number.</p>
+ *
+ * <p>Numbers are stored as their sign, decimal exponent and significant digits, which are ASCII digits without any
+ * leading or trailing zeros.</p>
+ */
+final class NaturalTokens {
+
+    final String[] texts;
+    final int[] signs;
+    final int[] exponents;
+    final String[] digits;
+
+    NaturalTokens(int numberCount) {
+        texts = new String[numberCount + 1];
+        signs = new int[numberCount];
+        exponents = new int[numberCount];
+        digits = new String[numberCount];
+    }
+
+    int numberCount() {
+        return signs.length;
+    }
+
+    /**
+     * Compare the number of a segment of two parsed strings.
+     */
+    static int compareNumbers(NaturalTokens lhs, int lhsIndex, NaturalTokens rhs, int rhsIndex) {
+        int lhsSign = lhs.signs[lhsIndex];
+        int rhsSign = rhs.signs[rhsIndex];
+        if (lhsSign != rhsSign) return lhsSign < rhsSign ? -1 : 1;
+        if (lhsSign == 0) return 0;
+
+        int lhsExponent = lhs.exponents[lhsIndex];
+        int rhsExponent = rhs.exponents[rhsIndex];
+        if (lhsExponent != rhsExponent) return lhsExponent < rhsExponent ? -lhsSign : lhsSign;
+
+        // Without leading or trailing zeros the digits of equal exponent numbers compare like text.
+        int digitCompare = lhs.digits[lhsIndex].compareTo(rhs.digits[rhsIndex]);
+        return digitCompare == 0 ? 0 : digitCompare < 0 ? -lhsSign : lhsSign;
+    }
+
+}
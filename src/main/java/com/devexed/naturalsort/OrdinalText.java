@@ -0,0 +1,120 @@
+package com.devexed.naturalsort;
+
+import java.util.Arrays;
+
+/**
+ * <p>Ordering of text by Unicode code point, with optional case folding, for comparators which don't collate text. Text
+ * is read code point by code point straight from the compared ranges, so comparing and hashing never allocate. Any
+ * runs of whitespace are read as a single space if whitespace is merged.</p>
+ *
+ * <p>Sort keys encode every code point plus one in the variable length form of UTF-8, which orders like the code points
+ * and never contains a zero byte, so the two zero bytes ending text followed by a number order before any longer
+ * text.</p>
+ */
+final class OrdinalText {
+
+    private final CaseFolding caseFolding;
+    private final boolean mergeWhitespace;
+
+    OrdinalText(CaseFolding caseFolding, boolean mergeWhitespace) {
+        this.caseFolding = caseFolding;
+        this.mergeWhitespace = mergeWhitespace;
+    }
+
+    /**
+     * Compare two ranges of text by their folded code points.
+     */
+    int compare(CharSequence lhs, int lhsStart, int lhsEnd, CharSequence rhs, int rhsStart, int rhsEnd) {
+        int i = lhsStart;
+        int j = rhsStart;
+
+        while (i < lhsEnd && j < rhsEnd) {
+            int lhsCodePoint = codePointAt(lhs, i, lhsEnd);
+            int rhsCodePoint = codePointAt(rhs, j, rhsEnd);
+
+            if (lhsCodePoint != rhsCodePoint) {
+                // Code points are at most 21 bits, so the difference can't overflow.
+                int codePointCompare = caseFolding.fold(lhsCodePoint) - caseFolding.fold(rhsCodePoint);
+                if (codePointCompare != 0) return codePointCompare;
+            }
+
+            i = next(lhs, i, lhsEnd, lhsCodePoint);
+            j = next(rhs, j, rhsEnd, rhsCodePoint);
+        }
+
+        return (i < lhsEnd ? 1 : 0) - (j < rhsEnd ? 1 : 0);
+    }
+
+    /**
+     * Mix the folded code points of a range of text into a hash.
+     */
+    long mix(long hash, CharSequence text, int start, int end) {
+        for (int i = start; i < end; ) {
+            int codePoint = codePointAt(text, i, end);
+            hash = NaturalHash.mix(hash, caseFolding.fold(codePoint));
+            i = next(text, i, end, codePoint);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Encode a range of text for a sort key.
+     *
+     * @return Bytes which order like the folded code points of the text when compared unsigned.
+     */
+    byte[] key(CharSequence text, int start, int end) {
+        byte[] key = new byte[(end - start) * 4];
+        int length = 0;
+
+        for (int i = start; i < end; ) {
+            int codePoint = codePointAt(text, i, end);
+            int value = caseFolding.fold(codePoint) + 1;
+
+            if (value < 0x80) {
+                key[length++] = (byte) value;
+            } else if (value < 0x800) {
+                key[length++] = (byte) (0xC0 | (value >>> 6));
+                key[length++] = (byte) (0x80 | (value & 0x3F));
+            } else if (value < 0x10000) {
+                key[length++] = (byte) (0xE0 | (value >>> 12));
+                key[length++] = (byte) (0x80 | ((value >>> 6) & 0x3F));
+                key[length++] = (byte) (0x80 | (value & 0x3F));
+            } else {
+                key[length++] = (byte) (0xF0 | (value >>> 18));
+                key[length++] = (byte) (0x80 | ((value >>> 12) & 0x3F));
+                key[length++] = (byte) (0x80 | ((value >>> 6) & 0x3F));
+                key[length++] = (byte) (0x80 | (value & 0x3F));
+            }
+
+            i = next(text, i, end, codePoint);
+        }
+
+        return Arrays.copyOf(key, length);
+    }
+
+    /**
+     * @return The code point at an index, a space for any whitespace if whitespace is merged, or the surrogate itself
+     *         for an unpaired surrogate.
+     */
+    private int codePointAt(CharSequence text, int index, int end) {
+        char c = text.charAt(index);
+        if (mergeWhitespace && NaturalLexer.isWhitespace(c)) return ' ';
+
+        if (Character.isHighSurrogate(c) && index + 1 < end) {
+            char low = text.charAt(index + 1);
+            if (Character.isLowSurrogate(low)) return Character.toCodePoint(c, low);
+        }
+
+        return c;
+    }
+
+    /**
+     * @return The index after a code point returned by {@link #codePointAt}.
+     */
+    private int next(CharSequence text, int index, int end, int codePoint) {
+        if (mergeWhitespace && codePoint == ' ') return NaturalLexer.skipWhitespace(text, index, end);
+        return index + Character.charCount(codePoint);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.devexed.naturalsort;
+
+/**
+ * <p>A string parsed once to be compared with many other strings, such as the pivot of a partition, the key of a binary
+ * search or the bounds of a range filter. The other strings are only scanned up to the first segment which differs
+ * from the prepared string, without parsing them.</p>
+ *
+ * @see NaturalOrderComparator#prepare(CharSequence)
+ */
+public final class PreparedKey<T extends CharSequence> {
+
+    private final T source;
+    private final NaturalTokens tokens;
+    private final NaturalOrderComparator<? super T> comparator;
+
+    PreparedKey(T source, NaturalOrderComparator<? super T> comparator) {
+        this.source = source;
+        this.tokens = comparator.tokenize(source);
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return The string this key was prepared from.
+     */
+    public T getSource() {
+        return source;
+    }
+
+    /**
+     * Compare the prepared string with another string, with the same result as the comparator comparing them.
+     *
+     * @return A negative number, zero or a positive number as the prepared string orders before, equal to or after
+     *         the other string.
+     */
+    public int compareTo(T other) {
+        return comparator.compareTokens(tokens, other, 0, other.length());
+    }
+
+    /**
+     * Compare the prepared string with each of an array of strings.
+     *
+     * @param others The strings to compare with.
+     * @param results The array to store the result of comparing with each string in, at the same index.
+     */
+    public void compareAll(T[] others, int[] results) {
+        if (results.length < others.length) throw new IllegalArgumentException("Too few results for all strings");
+        for (int i = 0; i < others.length; i++) results[i] = compareTo(others[i]);
+    }
+
+}
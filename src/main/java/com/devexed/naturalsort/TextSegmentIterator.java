@@ -0,0 +1,101 @@
+package com.devexed.naturalsort;
+
+import java.text.CharacterIterator;
+
+/**
+ * <p>Character iterator over a range of text as a natural order comparator sees it, with any runs of whitespace merged
+ * into a single space. The range is expected to already be trimmed of whitespace. Indexes are relative to the start of
+ * the range, as the collation element iterator expects iteration to begin at zero, with a merged run of whitespace
+ * positioned at the first character of the run.</p>
+ *
+ * <p>Allows collating a segment of text through a {@link java.text.CollationElementIterator} without copying it into a
+ * string.</p>
+ */
+final class TextSegmentIterator implements CharacterIterator {
+
+    private final CharSequence text;
+    private final int begin;
+    private final int end;
+    private int index;
+
+    TextSegmentIterator(CharSequence text, int start, int end) {
+        this.text = text;
+        this.begin = start;
+        this.end = end;
+        this.index = start;
+    }
+
+    @Override
+    public char first() {
+        index = begin;
+        return current();
+    }
+
+    @Override
+    public char last() {
+        index = end;
+        return begin < end ? previous() : DONE;
+    }
+
+    @Override
+    public char current() {
+        if (index >= end) return DONE;
+        char c = text.charAt(index);
+        return NaturalLexer.isWhitespace(c) ? ' ' : c;
+    }
+
+    @Override
+    public char next() {
+        if (index >= end) return DONE;
+        boolean whitespace = NaturalLexer.isWhitespace(text.charAt(index));
+        index = whitespace ? NaturalLexer.skipWhitespace(text, index, end) : index + 1;
+        return current();
+    }
+
+    @Override
+    public char previous() {
+        if (index <= begin) return DONE;
+        index--;
+        if (NaturalLexer.isWhitespace(text.charAt(index))) index = runStart(index);
+        return current();
+    }
+
+    @Override
+    public char setIndex(int relativePosition) {
+        int position = begin + relativePosition;
+        if (position < begin || position > end) throw new IllegalArgumentException("Invalid index");
+        index = position < end && NaturalLexer.isWhitespace(text.charAt(position)) ? runStart(position) : position;
+        return current();
+    }
+
+    private int runStart(int position) {
+        int i = position;
+        while (i > begin && NaturalLexer.isWhitespace(text.charAt(i - 1))) i--;
+        return i;
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return 0;
+    }
+
+    @Override
+    public int getEndIndex() {
+        return end - begin;
+    }
+
+    @Override
+    public int getIndex() {
+        return index - begin;
+    }
+
+    @Override
+    public Object clone() {
+        try {
+            return super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+}
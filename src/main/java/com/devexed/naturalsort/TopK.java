@@ -0,0 +1,99 @@
+package com.devexed.naturalsort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * <p>Selects the first strings in natural order out of any number of strings, keeping only a bounded heap of the best
+ * strings found so far. Strings in the heap are parsed, so a new string is only scanned until it differs from the worst
+ * string in the heap, which for most strings is within the first segment. Only strings which beat the worst string are
+ * parsed and added to the heap.</p>
+ *
+ * <p>Strings which compare equal are selected in the order they were added, like a stable sort.</p>
+ */
+final class TopK<T extends CharSequence> {
+
+    private final NaturalOrderComparator<? super T> comparator;
+    private final int k;
+    // Worst candidate first.
+    private final PriorityQueue<Candidate<T>> heap;
+    private long count = 0;
+
+    TopK(NaturalOrderComparator<? super T> comparator, int k) {
+        if (k < 0) throw new IllegalArgumentException("Can't select a negative number of strings");
+
+        this.comparator = comparator;
+        this.k = k;
+        this.heap = new PriorityQueue<Candidate<T>>(Math.max(1, Math.min(k, 1024)), Collections.reverseOrder());
+    }
+
+    void add(T value) {
+        add(value, null, count++);
+    }
+
+    private void add(T value, NaturalTokens tokens, long index) {
+        if (heap.size() >= k) {
+            Candidate<T> worst = heap.peek();
+            if (worst == null) return;
+
+            // An equal string only beats the worst candidate if it was added first.
+            int worstCompare = comparator.compareTokens(worst.tokens, value, 0, value.length());
+            if (worstCompare < 0 || (worstCompare == 0 && worst.index < index)) return;
+            heap.poll();
+        }
+
+        heap.add(new Candidate<T>(value, tokens != null ? tokens : comparator.tokenize(value), index, comparator));
+    }
+
+    /**
+     * Add all strings selected by another selector, as if they were added to this selector after all of its strings.
+     */
+    TopK<T> addAll(TopK<T> other) {
+        for (Candidate<T> candidate : other.heap) add(candidate.value, candidate.tokens, count + candidate.index);
+        count += other.count;
+        return this;
+    }
+
+    /**
+     * @return The selected candidates in order.
+     */
+    List<Candidate<T>> candidates() {
+        List<Candidate<T>> candidates = new ArrayList<Candidate<T>>(heap);
+        Collections.sort(candidates);
+        return candidates;
+    }
+
+    /**
+     * @return The selected strings in order.
+     */
+    List<T> values() {
+        List<T> values = new ArrayList<T>(heap.size());
+        for (Candidate<T> candidate : candidates()) values.add(candidate.value);
+        return values;
+    }
+
+    static final class Candidate<T extends CharSequence> implements Comparable<Candidate<T>> {
+
+        final T value;
+        final NaturalTokens tokens;
+        final long index;
+        private final NaturalOrderComparator<?> comparator;
+
+        Candidate(T value, NaturalTokens tokens, long index, NaturalOrderComparator<?> comparator) {
+            this.value = value;
+            this.tokens = tokens;
+            this.index = index;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public int compareTo(Candidate<T> other) {
+            int tokenCompare = comparator.compareTokens(tokens, other.tokens);
+            return tokenCompare != 0 ? tokenCompare : Long.compare(index, other.index);
+        }
+
+    }
+
+}
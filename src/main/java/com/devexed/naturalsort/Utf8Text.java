@@ -0,0 +1,211 @@
+package com.devexed.naturalsort;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Reusable character sequence view of a range of UTF-8 encoded bytes, which decodes nothing up front and allocates
+ * nothing while being read.</p>
+ *
+ * <p>Nearly all text to be naturally ordered is ASCII, so a range is first viewed {@link #viewAscii byte by byte}. That
+ * view reads the same characters as the decoded text at every index up to its first non-ASCII byte, and records
+ * whether such a byte was ever read. Any comparison which never read one gave the same result as comparing the
+ * decoded text, even if the range holds other characters further on. Otherwise the range is viewed again
+ * {@link #viewDecoded decoded}, where characters are decoded one by one as they are read by moving a cursor between
+ * character indexes and byte offsets, with supplementary characters read as surrogate pairs.</p>
+ */
+final class Utf8Text implements CharSequence {
+
+    private static final char replacementChar = 0xFFFD;
+
+    /**
+     * Decode a range of bytes into a new buffer, with any malformed bytes replaced like
+     * {@link java.nio.charset.Charset#decode} does.
+     */
+    static CharSequence decode(ByteBuffer bytes, int start, int end) {
+        ByteBuffer range = bytes.duplicate();
+        range.limit(end);
+        range.position(start);
+        return StandardCharsets.UTF_8.decode(range);
+    }
+
+    private ByteBuffer bytes;
+    private int start;
+    private int length;
+    private boolean ascii;
+    private boolean nonAsciiRead;
+
+    // The character index and byte offset of the start of the code point at the cursor of the decoded view.
+    private int cursorIndex;
+    private int cursorOffset;
+
+    /**
+     * View each byte of a range as a character. Non-ASCII bytes are read as a replacement character.
+     *
+     * @return This view.
+     */
+    Utf8Text viewAscii(ByteBuffer bytes, int start, int end) {
+        this.bytes = bytes;
+        this.start = start;
+        this.length = end - start;
+        this.ascii = true;
+        this.nonAsciiRead = false;
+        return this;
+    }
+
+    /**
+     * View the decoded characters of a range. Counts the characters of the range, which is only possible when it is
+     * well-formed UTF-8.
+     *
+     * @return False if the range is malformed, in which case it should be {@link #decode decoded} instead.
+     */
+    boolean viewDecoded(ByteBuffer bytes, int start, int end) {
+        int charCount = 0;
+
+        for (int i = start; i < end; ) {
+            int sequenceLength = wellFormedLength(bytes, i, end);
+            if (sequenceLength == 0) return false;
+            charCount += sequenceLength == 4 ? 2 : 1;
+            i += sequenceLength;
+        }
+
+        this.bytes = bytes;
+        this.start = start;
+        this.length = charCount;
+        this.ascii = false;
+        this.cursorIndex = 0;
+        this.cursorOffset = start;
+        return true;
+    }
+
+    /**
+     * @return True if a non-ASCII byte was read since the range was viewed byte by byte.
+     */
+    boolean readNonAscii() {
+        return nonAsciiRead;
+    }
+
+    /**
+     * Stop viewing the bytes, so that they aren't kept reachable by the view.
+     */
+    void release() {
+        bytes = null;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException(String.valueOf(index));
+
+        if (ascii) {
+            byte b = bytes.get(start + index);
+            if (b >= 0) return (char) b;
+            nonAsciiRead = true;
+            return replacementChar;
+        }
+
+        // Walk from the start rather than back from the cursor when the start is closer.
+        if (index < cursorIndex - index) {
+            cursorIndex = 0;
+            cursorOffset = start;
+        }
+
+        while (cursorIndex > index) {
+            do cursorOffset--; while ((bytes.get(cursorOffset) & 0xC0) == 0x80);
+            cursorIndex -= sequenceLength(bytes.get(cursorOffset)) == 4 ? 2 : 1;
+        }
+
+        int sequenceLength = sequenceLength(bytes.get(cursorOffset));
+
+        while (cursorIndex + (sequenceLength == 4 ? 2 : 1) <= index) {
+            cursorIndex += sequenceLength == 4 ? 2 : 1;
+            cursorOffset += sequenceLength;
+            sequenceLength = sequenceLength(bytes.get(cursorOffset));
+        }
+
+        int codePoint = codePointAt(cursorOffset, sequenceLength);
+        if (sequenceLength < 4) return (char) codePoint;
+        return index == cursorIndex ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException(start + ", " + end);
+        StringBuilder chars = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) chars.append(charAt(i));
+        return chars.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+
+    private int codePointAt(int offset, int sequenceLength) {
+        int lead = bytes.get(offset) & 0xFF;
+
+        switch (sequenceLength) {
+            case 1:
+                return lead;
+            case 2:
+                return ((lead & 0x1F) << 6) | (bytes.get(offset + 1) & 0x3F);
+            case 3:
+                return ((lead & 0x0F) << 12) | ((bytes.get(offset + 1) & 0x3F) << 6) | (bytes.get(offset + 2) & 0x3F);
+            default:
+                return ((lead & 0x07) << 18) | ((bytes.get(offset + 1) & 0x3F) << 12)
+                        | ((bytes.get(offset + 2) & 0x3F) << 6) | (bytes.get(offset + 3) & 0x3F);
+        }
+    }
+
+    /**
+     * @return The length of the sequence starting with a lead byte of well-formed UTF-8.
+     */
+    private static int sequenceLength(byte lead) {
+        int b = lead & 0xFF;
+        return b < 0x80 ? 1 : b < 0xE0 ? 2 : b < 0xF0 ? 3 : 4;
+    }
+
+    /**
+     * Check a sequence against the table of well-formed UTF-8 byte sequences, which the UTF-8 decoder decodes without
+     * any replacement.
+     *
+     * @return The length of the well-formed sequence at an offset, or zero if it is malformed.
+     */
+    private static int wellFormedLength(ByteBuffer bytes, int offset, int end) {
+        int lead = bytes.get(offset) & 0xFF;
+        if (lead < 0x80) return 1;
+
+        int sequenceLength;
+        int secondMin = 0x80;
+        int secondMax = 0xBF;
+
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            sequenceLength = 2;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            sequenceLength = 3;
+            if (lead == 0xE0) secondMin = 0xA0;
+            if (lead == 0xED) secondMax = 0x9F;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            sequenceLength = 4;
+            if (lead == 0xF0) secondMin = 0x90;
+            if (lead == 0xF4) secondMax = 0x8F;
+        } else {
+            return 0;
+        }
+
+        if (offset + sequenceLength > end) return 0;
+        int second = bytes.get(offset + 1) & 0xFF;
+        if (second < secondMin || second > secondMax) return 0;
+
+        for (int i = offset + 2; i < offset + sequenceLength; i++) {
+            if ((bytes.get(i) & 0xC0) != 0x80) return 0;
+        }
+
+        return sequenceLength;
+    }
+
+}
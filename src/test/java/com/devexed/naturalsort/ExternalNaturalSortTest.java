@@ -0,0 +1,78 @@
+package com.devexed.naturalsort;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ExternalNaturalSortTest extends TestCase {
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("natural-sort-test");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) Files.delete(file);
+        }
+
+        Files.delete(directory);
+    }
+
+    private void assertSortsLikeInMemory(long memoryBudget, int maxMergedRuns) throws IOException {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        Random random = new Random(maxMergedRuns);
+        List<String> lines = new ArrayList<String>();
+
+        for (int i = 0; i < 5000; i++) {
+            String prefix = random.nextBoolean() ? "asset " : "Asset 0";
+            lines.add(prefix + random.nextInt(500) + "/part " + random.nextInt(5));
+        }
+
+        Path input = directory.resolve("input.txt");
+        Path output = directory.resolve("output.txt");
+        Files.write(input, lines, StandardCharsets.UTF_8);
+
+        ExternalNaturalSort sorter = new ExternalNaturalSort(comp, memoryBudget, maxMergedRuns, directory);
+        sorter.sort(input, output, StandardCharsets.UTF_8);
+
+        List<String> expected = new ArrayList<String>(lines);
+        Collections.sort(expected, comp);
+        assertThat(Files.readAllLines(output, StandardCharsets.UTF_8), is(expected));
+
+        // Only the input and output are left behind.
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            int fileCount = 0;
+            for (Path ignored : files) fileCount++;
+            assertThat(fileCount, is(2));
+        }
+    }
+
+    public void testSortInMemory() throws IOException {
+        assertSortsLikeInMemory(Long.MAX_VALUE, 64);
+    }
+
+    public void testSortSingleMerge() throws IOException {
+        assertSortsLikeInMemory(100000, 64);
+    }
+
+    public void testSortMultipleMerges() throws IOException {
+        assertSortsLikeInMemory(10000, 3);
+    }
+
+}
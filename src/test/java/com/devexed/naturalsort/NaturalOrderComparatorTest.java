@@ -2,12 +2,25 @@ package com.devexed.naturalsort;
 
 import junit.framework.TestCase;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.Collator;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class NaturalOrderComparatorTest extends TestCase {
@@ -55,6 +68,47 @@ public class NaturalOrderComparatorTest extends TestCase {
         }
     }
 
+    public void testBidiMarkBeforeMinus() {
+        // Some locales put a bidi mark between the whitespace before a negative number and its minus sign.
+        for (String tag : new String[] { "he", "ar-DZ", "fa" }) {
+            Locale locale = Locale.forLanguageTag(tag);
+            NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(locale);
+            String negative = formatDouble(locale, -590728.89);
+            String positive = formatDouble(locale, 398013.24);
+
+            for (String mark : new String[] { "", "\u200E", "\u200F", "\u061C" }) {
+                String lhs = "ab c " + mark + negative;
+                String rhs = "ab c " + positive;
+                assertThat(tag + mark, sign(comp.compare(lhs, rhs)), is(-1));
+                assertThat(tag + mark, sign(comp.compare(rhs, lhs)), is(1));
+                assertThat(tag + mark, sign(comp.getSortKey(lhs).compareTo(comp.getSortKey(rhs))), is(-1));
+                assertThat(tag + mark, comp.compare(lhs, "ab c " + negative), is(0));
+                assertThat(tag + mark, comp.naturalHash(lhs), is(comp.naturalHash("ab c " + negative)));
+            }
+        }
+    }
+
+    public void testBidiMarkAfterMinus() {
+        // Locales writing Arabic separators and Persian digits may also put a bidi mark between the minus sign and the
+        // digits, e.g. "\u200E-\u200E\u06F1\u066C\u06F2\u06F3\u06F4\u066B\u06F5".
+        for (String tag : new String[] { "ks", "ps", "ur-IN", "sd-Arab", "en" }) {
+            Locale locale = Locale.forLanguageTag(tag);
+            NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(locale);
+            String minus = "" + new DecimalFormatSymbols(locale).getMinusSign();
+            String negative = "ab c " + minus + formatDouble(locale, 590728.89);
+
+            for (String mark : new String[] { "", "\u200E", "\u200F\u200E", "\u061C" }) {
+                String lhs = "ab c " + minus + mark + formatDouble(locale, 590728.89);
+                String rhs = "ab c " + formatDouble(locale, 398013.24);
+                assertThat(tag + mark, sign(comp.compare(lhs, rhs)), is(-1));
+                assertThat(tag + mark, sign(comp.compare(rhs, lhs)), is(1));
+                assertThat(tag + mark, sign(comp.getSortKey(lhs).compareTo(comp.getSortKey(rhs))), is(-1));
+                assertThat(tag + mark, sign(comp.prepare(lhs).compareTo(rhs)), is(-1));
+                assertThat(tag + mark, comp.naturalHash(lhs), is(comp.naturalHash(negative)));
+            }
+        }
+    }
+
     public void testNumbers() {
         Collator collator = Collator.getInstance();
         collator.setStrength(Collator.SECONDARY);
@@ -65,4 +119,504 @@ public class NaturalOrderComparatorTest extends TestCase {
         assertTrue(comp.compare(comp.normalize("ABC000" + a), comp.normalize("abc" + a)) == 0);
     }
 
+    public void testSortMixed() {
+        List<String> expected = Arrays.asList(
+                "humbug -2",
+                "humbug 1",
+                "humbug  1.5",
+                "humbug 2",
+                "humbug 11",
+                "humbug 1,000",
+                "humbug 1,000 b",
+                "humbug 1,000 b 3",
+                "Humbug 1,000 b 12");
+        List<String> sorted = new ArrayList<String>(expected);
+        Collections.reverse(sorted);
+        Collections.sort(sorted, new NaturalOrderComparator<String>(Locale.ENGLISH));
+        assertThat(sorted, is(expected));
+    }
+
+    public void testMergeWhitespace() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        assertThat(comp.compare("a  b\t c 12", "a b c 12"), is(0));
+        assertThat(comp.compare("a b c 12  ", "a b c   12"), is(0));
+        assertThat(sign(comp.compare("a b c 12", "ab c 12")), is(1));
+    }
+
+    public void testLongNumbers() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        assertThat(sign(comp.compare("x 999999999999999999", "x 1000000000000000000")), is(-1));
+        assertThat(sign(comp.compare("x 123456789012345678901", "x 123456789012345678902")), is(-1));
+        assertThat(sign(comp.compare("x -123456789012345678901", "x -123456789012345678902")), is(1));
+        assertThat(sign(comp.compare("x 1.0000000000000000001", "x 1.0000000000000000002")), is(-1));
+        assertThat(comp.compare("x 00000000000000000000012.50", "x 12.5"), is(0));
+        assertThat(comp.compare("x -0.0", "x 0"), is(0));
+    }
+
+    public void testConcurrent() throws Exception {
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 2000; i++) expected.add("humbug " + (i / 10) + " b" + (i % 10));
+
+        final NaturalOrderComparator<String> comp = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+
+        try {
+            for (int i = 0; i < 8; i++) {
+                final Random random = new Random(i);
+                results.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        List<String> sorted = new ArrayList<String>(expected);
+                        Collections.shuffle(sorted, random);
+                        Collections.sort(sorted, comp);
+                        return sorted;
+                    }
+                }));
+            }
+
+            for (Future<List<String>> result : results) assertThat(result.get(), is(expected));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public void testCached() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        NaturalOrderComparator<String> cachedComp = comp.cached(50);
+        String alphabet = "aAb -.,0123456789";
+        Random random = new Random(0);
+        String[] strings = new String[100];
+
+        for (int i = 0; i < strings.length; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(10); j > 0; j--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            strings[i] = text.toString();
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            String a = strings[random.nextInt(strings.length)];
+            String b = strings[random.nextInt(strings.length)];
+            assertThat(a + " vs " + b, sign(cachedComp.compare(a, b)), is(sign(comp.compare(a, b))));
+        }
+
+        CacheStats stats = cachedComp.cacheStats();
+        assertThat(stats.hitCount() + stats.missCount(), is(20000L));
+        assertTrue(stats.evictionCount() > 0);
+        assertTrue(stats.size() <= 50);
+        assertNull(comp.cacheStats());
+    }
+
+    public void testNaturalHash() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        String[][] equalStrings = {
+                {"humbug 12", "Humbug 012", "  humbug\t12.000 "},
+                {"a  b c 1,000.5 x", "A b C 1000.50 X"},
+                {"-0", "0", "0.0"},
+                {"\u00e9t\u00e9 2", "\u00e9t\u00e9 2"},
+                {"", "  "}
+        };
+
+        for (String[] strings : equalStrings) {
+            for (String string : strings) {
+                assertThat(string, comp.compare(string, strings[0]), is(0));
+                assertThat(string, comp.naturalHash(string), is(comp.naturalHash(strings[0])));
+            }
+        }
+
+        assertFalse(comp.naturalHash("humbug 12") == comp.naturalHash("humbug 13"));
+        assertFalse(comp.naturalHash("humbug 12") == comp.naturalHash("humbug 1 2"));
+        assertFalse(comp.naturalHash("1.5") == comp.naturalHash("15"));
+        assertFalse(comp.naturalHash("a") == comp.naturalHash("b"));
+    }
+
+    public void testCommonPrefix() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        // Compares parsed strings from the start, without skipping common prefixes.
+        NaturalOrderComparator<String> fullComp = comp.cached(1);
+        String[] prefixes = {"customer_export_2024_11_batch_", "v1.2", "a 1,000", "b -", "c 0.", "d  ", ""};
+        String alphabet = "ab -.,0123456789";
+        Random random = new Random(0);
+
+        for (int i = 0; i < 20000; i++) {
+            String prefix = prefixes[random.nextInt(prefixes.length)];
+            StringBuilder a = new StringBuilder(prefix);
+            StringBuilder b = new StringBuilder(prefix);
+            for (int j = random.nextInt(6); j > 0; j--) a.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            for (int j = random.nextInt(6); j > 0; j--) b.append(alphabet.charAt(random.nextInt(alphabet.length())));
+
+            String as = a.toString();
+            String bs = b.toString();
+            assertThat(as + " vs " + bs, sign(comp.compare(as, bs)), is(sign(fullComp.compare(as, bs))));
+        }
+
+        String batch2 = "customer_export_2024_11_batch_0002";
+        String batch10 = "customer_export_2024_11_batch_0010";
+        assertThat(sign(comp.compare(batch2, batch10)), is(-1));
+        assertThat(sign(comp.compare("file 1,5", "file 1,50")), is(-1));
+        assertThat(sign(comp.compare("file 1.5", "file 1.50")), is(0));
+    }
+
+    public void testLatin1Collation() {
+        String alphabet = "aAbBcChHsSzZyYgG -_.'\u00e9\u00c9\u00e4\u00df\u00e6\u00e5\u00a0\u00ad\u0101";
+        Random random = new Random(0);
+
+        for (String language : new String[] {"en", "cs", "da", "hu"}) {
+            for (int strength : new int[] {Collator.PRIMARY, Collator.SECONDARY, Collator.TERTIARY}) {
+                Collator collator = Collator.getInstance(new Locale(language));
+                collator.setStrength(strength);
+                NaturalOrderComparator<String> comp =
+                        new NaturalOrderComparator<String>(collator, new DecimalFormatSymbols(Locale.ENGLISH));
+
+                for (int i = 0; i < 2000; i++) {
+                    StringBuilder a = new StringBuilder();
+                    StringBuilder b = new StringBuilder();
+                    for (int j = random.nextInt(6); j > 0; j--) {
+                        a.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+
+                    for (int j = random.nextInt(6); j > 0; j--) {
+                        b.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+
+                    String as = a.toString();
+                    String bs = b.toString();
+                    int expected = collator.compare(
+                            NaturalLexer.textSegment(as, 0, as.length()), NaturalLexer.textSegment(bs, 0, bs.length()));
+                    assertThat(language + " " + as + " vs " + bs, sign(comp.compare(as, bs)), is(sign(expected)));
+                }
+            }
+        }
+    }
+
+    public void testCollatorCopied() {
+        // Changing the collator after creating the comparator changes neither Latin-1 nor other text comparisons.
+        Collator collator = Collator.getInstance(Locale.ENGLISH);
+        collator.setStrength(Collator.PRIMARY);
+        NaturalOrderComparator<String> comp =
+                new NaturalOrderComparator<String>(collator, new DecimalFormatSymbols(Locale.ENGLISH));
+        collator.setStrength(Collator.TERTIARY);
+
+        assertThat(comp.compare("a", "A"), is(0));
+        assertThat(comp.compare("\u00e9", "e"), is(0));
+        assertThat(comp.compare("\u0101", "a"), is(0));
+    }
+
+    public void testCompareRanges() {
+        NaturalOrderComparator<CharBuffer> comp = new NaturalOrderComparator<CharBuffer>(Locale.ENGLISH);
+        char[] text = "x file 10.txt|file 9.TXT|file  9.txt y".toCharArray();
+
+        assertThat(sign(comp.compare(text, 2, 13, text, 14, 24)), is(1));
+        assertThat(sign(comp.compare(text, 14, 24, text, 2, 13)), is(-1));
+        assertThat(sign(comp.compare(text, 14, 24, text, 25, 36)), is(0));
+        char[] other = "file 10.TXT".toCharArray();
+        assertThat(sign(comp.compare(other, 0, 11, text, 14, 24)), is(1));
+        assertThat(sign(comp.compare(text, 14, 24, other, 0, 11)), is(-1));
+        assertThat(sign(comp.compare(text, 2, 13, other, 0, 11)), is(0));
+        assertThat(sign(comp.compare(CharBuffer.wrap(text, 2, 11), CharBuffer.wrap(text, 14, 10))), is(1));
+        assertThat(sign(comp.compare(CharBuffer.wrap("file 9"), CharBuffer.wrap("file 9.5"))), is(-1));
+    }
+
+    public void testCompareUtf8() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        ByteBuffer bytes = ByteBuffer.wrap(
+                "file 10.txt|file 9.TXT|\u00e9t\u00e9 2|ete 10|\u0663 b".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(sign(comp.compare(bytes, 0, 11, bytes, 12, 22)), is(1));
+        assertThat(sign(comp.compare(bytes, 12, 22, bytes, 0, 11)), is(-1));
+        assertThat(sign(comp.compare(bytes, 23, 30, bytes, 31, 37)),
+                is(sign(comp.compare("\u00e9t\u00e9 2", "ete 10"))));
+        assertThat(sign(comp.compare(bytes, 38, 42, bytes, 31, 37)), is(sign(comp.compare("\u0663 b", "ete 10"))));
+        assertThat(bytes.position(), is(0));
+    }
+
+    public void testCompareUtf8EdgeCases() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        NaturalOrderComparator<String> ordinalComp = NaturalOrderComparator.builder().ordinal(CaseFolding.NONE).build();
+        byte[][] ranges = {
+                bytes("a1 \u00e9"), bytes("b1 \u00e9"), bytes("a1 e"), bytes("a10 \uD83D\uDE00"), bytes("a10 \uFFFD"),
+                bytes("x \u0661\u0662"), bytes("x 12"), bytes("x\u00a0y"), bytes("x y"), bytes(""),
+                // Malformed: lone continuation, truncated, overlong, surrogate and beyond the last code point.
+                { 'a', (byte) 0x80, 'b' }, { 'a', (byte) 0xC3 }, { 'a', (byte) 0xE2, (byte) 0x82 },
+                { 'a', (byte) 0xF0, (byte) 0x9F, (byte) 0x98, '1' }, { 'a', (byte) 0xC0, (byte) 0x80 },
+                { 'a', (byte) 0xED, (byte) 0xA0, (byte) 0x80 },
+                { 'a', (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80 },
+                { (byte) 0xFF, '2' }, { (byte) 0xC3, (byte) 0xA9, (byte) 0xA9, '1' },
+        };
+
+        for (byte[] lhs : ranges) {
+            for (byte[] rhs : ranges) {
+                String lhsString = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(lhs)).toString();
+                String rhsString = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(rhs)).toString();
+                String message = lhsString + " vs " + rhsString;
+
+                for (NaturalOrderComparator<String> c : Arrays.asList(comp, ordinalComp)) {
+                    // Place the ranges within larger buffers to check the offsets are respected.
+                    ByteBuffer lhsBuffer = ByteBuffer.allocate(lhs.length + 2);
+                    lhsBuffer.put((byte) 0xE2).put(lhs).put((byte) '9');
+                    ByteBuffer rhsBuffer = ByteBuffer.allocate(rhs.length + 2);
+                    rhsBuffer.put((byte) '9').put(rhs).put((byte) 0xE2);
+                    assertThat(message, sign(c.compare(lhsBuffer, 1, lhs.length + 1, rhsBuffer, 1, rhs.length + 1)),
+                            is(sign(c.compare(lhsString, rhsString))));
+                }
+            }
+        }
+    }
+
+    public void testUtf8TextRandomAccess() {
+        String text = "a\u00e9\u20ac\uD83D\uDE00b\uD83D\uDE01\u0661";
+        byte[] bytes = bytes(text);
+        Utf8Text view = new Utf8Text();
+        assertThat(view.viewDecoded(ByteBuffer.wrap(bytes), 0, bytes.length), is(true));
+        assertThat(view.length(), is(text.length()));
+        Random random = new Random(0);
+
+        for (int i = 0; i < 1000; i++) {
+            int index = random.nextInt(text.length());
+            assertThat(view.charAt(index), is(text.charAt(index)));
+        }
+
+        assertThat(view.toString(), is(text));
+        assertThat(view.viewDecoded(ByteBuffer.wrap(new byte[] { 'a', (byte) 0xC3 }), 0, 2), is(false));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void testForLocale() {
+        CacheStats before = NaturalOrderComparator.forLocaleStats();
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.forLocale(Locale.GERMAN);
+        NaturalOrderComparator<CharSequence> sameComp = NaturalOrderComparator.forLocale(Locale.GERMAN);
+        CacheStats after = NaturalOrderComparator.forLocaleStats();
+
+        assertTrue(comp == (Object) sameComp);
+        assertTrue(comp != (Object) NaturalOrderComparator.forLocale(Locale.FRENCH));
+        assertThat(after.hitCount() - before.hitCount() >= 1, is(true));
+        assertThat(sign(comp.compare("Datei 1.000,5", "datei 999")), is(1));
+    }
+
+    public void testBuilder() {
+        NaturalOrderComparator<String> full = NaturalOrderComparator.builder().locale(Locale.ENGLISH).build();
+        NaturalOrderComparator<String> noNegatives =
+                NaturalOrderComparator.builder().locale(Locale.ENGLISH).negativeNumbers(false).build();
+        NaturalOrderComparator<String> noGrouping =
+                NaturalOrderComparator.builder().locale(Locale.ENGLISH).groupedNumbers(false).build();
+        NaturalOrderComparator<String> noDecimals =
+                NaturalOrderComparator.builder().locale(Locale.ENGLISH).decimalNumbers(false).build();
+        NaturalOrderComparator<String> noMerging =
+                NaturalOrderComparator.builder().locale(Locale.ENGLISH).mergeWhitespace(false).build();
+        NaturalOrderComparator<String> primary =
+                NaturalOrderComparator.builder().locale(Locale.ENGLISH).strength(Collator.PRIMARY).build();
+
+        assertThat(sign(full.compare("x -5", "x 3")), is(-1));
+        assertThat(sign(noNegatives.compare("x -5", "x 3")), is(1));
+        assertThat(sign(full.compare("1,000", "999")), is(1));
+        assertThat(sign(noGrouping.compare("1,000", "999")), is(-1));
+        assertThat(sign(full.compare("1.5", "1.10")), is(1));
+        assertThat(sign(noDecimals.compare("1.5", "1.10")), is(-1));
+        assertThat(sign(full.compare("a  b", " a b")), is(0));
+        assertThat(sign(noMerging.compare("a  b", "a b")), is(not(0)));
+        assertThat(sign(noMerging.compare(" a", "a")), is(not(0)));
+        assertThat(sign(full.compare("\u00e9t\u00e9", "ete")), is(1));
+        assertThat(sign(primary.compare("\u00e9t\u00e9", "ete")), is(0));
+    }
+
+    public void testBuilderConsistency() {
+        // Every reduced comparator orders its sort keys, hashes and parsed strings consistently with comparing.
+        List<String> strings = TestStrings.randomStrings("aA\u00e9 \t-.,0123456789", 200);
+
+        for (int features = 0; features < 16; features++) {
+            NaturalOrderComparator<String> comp = NaturalOrderComparator.builder()
+                    .locale(Locale.ENGLISH)
+                    .negativeNumbers((features & 1) == 0)
+                    .groupedNumbers((features & 2) == 0)
+                    .decimalNumbers((features & 4) == 0)
+                    .mergeWhitespace((features & 8) == 0)
+                    .build();
+            assertConsistent(String.valueOf(features), comp, strings);
+        }
+    }
+
+    public void testOrdinal() {
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.builder().ordinal(CaseFolding.NONE).build();
+        assertThat(sign(comp.compare("B2", "a10")), is(-1));
+        assertThat(sign(comp.compare("a10", "a9")), is(1));
+        assertThat(sign(comp.compare("a-1.5", "a-1,000")), is(1));
+        assertThat(comp.compare("a  b1", "a b1"), is(0));
+        assertThat(sign(comp.compare("a", "A")), is(1));
+        // Supplementary characters order after all others, unlike their UTF-16 surrogates.
+        assertThat(sign(comp.compare("\uD83D\uDE00", "\uFFFD")), is(1));
+
+        NaturalOrderComparator<String> asciiComp = NaturalOrderComparator.builder().ordinal(CaseFolding.ASCII).build();
+        assertThat(sign(asciiComp.compare("a10", "B2")), is(-1));
+        assertThat(asciiComp.compare("host-A-1", "host-a-1"), is(0));
+        assertThat(asciiComp.compare("\u00e9", "\u00c9"), not(0));
+
+        NaturalOrderComparator<String> simpleComp =
+                NaturalOrderComparator.builder().ordinal(CaseFolding.SIMPLE).build();
+        assertThat(simpleComp.compare("\u00e9", "\u00c9"), is(0));
+        assertThat(sign(simpleComp.compare("\u00e9", "f")), is(1));
+        assertThat(simpleComp.getSortKey("\u00c91").compareTo(simpleComp.getSortKey("\u00e9 1")), is(0));
+
+        // Numbers are recognized with the separators of the locale only if one is set.
+        NaturalOrderComparator<String> germanComp = NaturalOrderComparator.builder()
+                .ordinal(CaseFolding.NONE)
+                .locale(Locale.GERMAN)
+                .build();
+        assertThat(sign(comp.compare("1,5", "1,25")), is(-1));
+        assertThat(sign(germanComp.compare("1,5", "1,25")), is(1));
+    }
+
+    public void testOrdinalConsistency() {
+        List<String> strings = TestStrings.randomStrings("aAbB\u00e9\u00c9\u0000 \t-.,019\uD83D\uDE00\uFFFD", 200);
+
+        for (CaseFolding caseFolding : CaseFolding.values()) {
+            for (boolean mergeWhitespace : new boolean[] { true, false }) {
+                NaturalOrderComparator<String> comp = NaturalOrderComparator.builder()
+                        .ordinal(caseFolding)
+                        .mergeWhitespace(mergeWhitespace)
+                        .build();
+                assertConsistent(caseFolding + " " + mergeWhitespace, comp, strings);
+            }
+        }
+    }
+
+    public void testNonAsciiDigits() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        // Arabic-Indic, Devanagari and fullwidth digits have the value of the ASCII digits.
+        assertThat(comp.compare("a\u0661\u0660", "a10"), is(0));
+        assertThat(comp.compare("a\u0969", "a3"), is(0));
+        assertThat(comp.compare("a\uFF11\uFF12", "a12"), is(0));
+        assertThat(sign(comp.compare("a\u0661\u0660", "a9")), is(1));
+        assertThat(sign(comp.compare("a\u096F", "a\uFF11\uFF10")), is(-1));
+        assertThat(comp.getSortKey("a\u0661\u0660").compareTo(comp.getSortKey("a10")), is(0));
+        assertThat(comp.naturalHash("a\uFF11\uFF12"), is(comp.naturalHash("a12")));
+    }
+
+    public void testCharClasses() {
+        // The lookup tables classify every character like the character database.
+        NaturalLexer lexer = new NaturalLexer(new DecimalFormatSymbols(Locale.ENGLISH));
+        NaturalLexer frenchLexer = new NaturalLexer(new DecimalFormatSymbols(Locale.FRENCH));
+        char frenchGrouping = new DecimalFormatSymbols(Locale.FRENCH).getGroupingSeparator();
+
+        for (int i = 0; i <= Character.MAX_VALUE; i++) {
+            char c = (char) i;
+            boolean digit = Character.getType(c) == Character.DECIMAL_DIGIT_NUMBER;
+            boolean whitespace = Character.isWhitespace(c) || c == '\u00a0';
+            boolean dash = Character.getType(c) == Character.DASH_PUNCTUATION;
+            String message = Integer.toHexString(i);
+            assertThat(message, NaturalLexer.isDigit(c), is(digit));
+            assertThat(message, NaturalLexer.digit(c), is(digit ? Character.digit(c, 10) : -1));
+            assertThat(message, NaturalLexer.isWhitespace(c), is(whitespace));
+            assertThat(message, lexer.isMinus(c), is(dash));
+            assertThat(message, lexer.isGrouping(c), is(c == ','));
+            assertThat(message, lexer.isDecimal(c), is(c == '.'));
+            assertThat(message, frenchLexer.isGrouping(c), is(c == frenchGrouping || (whitespace
+                    && NaturalLexer.isWhitespace(frenchGrouping))));
+        }
+
+        NaturalLexer integerLexer = new NaturalLexer(
+                new DecimalFormatSymbols(Locale.ENGLISH), false, false, false, true);
+        assertThat(integerLexer.isMinus('-'), is(false));
+        assertThat(integerLexer.isGrouping(','), is(false));
+        assertThat(integerLexer.isDecimal('.'), is(false));
+    }
+
+    public void testLinearTime() {
+        // Strings shaped to stress the scanner are read a bounded number of times per character, whatever their length.
+        int length = 20000;
+        String[][] pairs = {
+                { repeat("1,", length) + "1", repeat("1,", length) + "2" },
+                { repeat("0", length) + "1", repeat("0", length) + "2" },
+                { repeat("1.", length) + "1", repeat("1.", length) + "2" },
+                { repeat("-1", length) + "a", repeat("-1", length) + "b" },
+                { repeat("1 ", length) + "1", repeat("1 ", length) + "2" },
+                { "a" + repeat(" \t", length) + "a", "a" + repeat(" \t", length) + "b" },
+                { repeat("a ", length) + "a", repeat("a  ", length) + "b" },
+                { repeat("\u00e9 1 ", length), repeat("\u00e9 1 ", length) + "\u4e00" },
+        };
+        List<NaturalOrderComparator<CharSequence>> comparators = Arrays.asList(
+                new NaturalOrderComparator<CharSequence>(Locale.ENGLISH),
+                new NaturalOrderComparator<CharSequence>(Locale.FRENCH),
+                NaturalOrderComparator.builder().ordinal(CaseFolding.SIMPLE).<CharSequence>build());
+
+        for (NaturalOrderComparator<CharSequence> comp : comparators) {
+            for (String[] pair : pairs) {
+                ReadCountingText lhs = new ReadCountingText(pair[0]);
+                ReadCountingText rhs = new ReadCountingText(pair[1]);
+                comp.compare(lhs, 0, lhs.length(), rhs, 0, rhs.length());
+                comp.prepare(lhs).compareTo(rhs);
+                comp.naturalHash(lhs);
+                comp.getSortKey(rhs);
+
+                String message = pair[0].substring(0, 8);
+                assertThat(message, lhs.reads + rhs.reads < 32L * (lhs.length() + rhs.length()), is(true));
+            }
+        }
+    }
+
+    private static String repeat(String s, int length) {
+        StringBuilder repeated = new StringBuilder(length + s.length());
+        while (repeated.length() < length) repeated.append(s);
+        return repeated.toString();
+    }
+
+    private static final class ReadCountingText implements CharSequence {
+
+        private final String text;
+        long reads = 0;
+
+        ReadCountingText(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            reads++;
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+
+    }
+
+    private static void assertConsistent(String name, NaturalOrderComparator<String> comp, List<String> strings) {
+        NaturalOrderComparator<String> cachedComp = comp.cached(strings.size());
+        NaturalSortKey[] keys = new NaturalSortKey[strings.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = comp.getSortKey(strings.get(i));
+
+        for (int i = 0; i < strings.size(); i++) {
+            String a = strings.get(i);
+            PreparedKey<String> preparedKey = comp.prepare(a);
+            assertThat(name + ": " + a, comp.getSortKeyPrefix(a), is(keys[i].prefix()));
+
+            for (int j = 0; j < strings.size(); j++) {
+                String b = strings.get(j);
+                int expected = sign(comp.compare(a, b));
+                String message = name + ": " + a + " vs " + b;
+                assertThat(message, sign(-comp.compare(b, a)), is(expected));
+                assertThat(message, sign(keys[i].compareTo(keys[j])), is(expected));
+                assertThat(message, sign(cachedComp.compare(a, b)), is(expected));
+                assertThat(message, sign(preparedKey.compareTo(b)), is(expected));
+                if (expected == 0) assertThat(message, comp.naturalHash(a), is(comp.naturalHash(b)));
+            }
+        }
+    }
+
 }
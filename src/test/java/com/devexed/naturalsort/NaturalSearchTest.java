@@ -0,0 +1,127 @@
+package com.devexed.naturalsort;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NaturalSearchTest extends TestCase {
+
+    private static List<String> sortedStrings(NaturalOrderComparator<String> comp) {
+        List<String> strings = TestStrings.fileNames(2000);
+        Collections.sort(strings, comp);
+        return strings;
+    }
+
+    private static List<String> probes() {
+        return Arrays.asList("file 7.5", "file 007.5", "file 7.55", "img-99.9", "a", "zzz", "", "v0.0", "v 100");
+    }
+
+    public void testBinarySearch() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = sortedStrings(comp);
+        String[] array = strings.toArray(new String[0]);
+        NaturalSortKey[] keys = new NaturalSortKey[array.length];
+        for (int i = 0; i < keys.length; i++) keys[i] = comp.getSortKey(array[i]);
+
+        List<String> probes = new ArrayList<String>(probes());
+        probes.addAll(strings.subList(0, 200));
+
+        for (String probe : probes) {
+            int expected = Collections.binarySearch(strings, probe, comp);
+            assertThat(probe, NaturalSearch.binarySearch(strings, probe, comp), is(expected));
+            assertThat(probe, NaturalSearch.binarySearch(array, probe, comp), is(expected));
+            assertThat(probe, NaturalSearch.binarySearch(keys, probe, comp), is(expected));
+        }
+    }
+
+    public void testBounds() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = sortedStrings(comp);
+        String[] array = strings.toArray(new String[0]);
+        NaturalSortKey[] keys = new NaturalSortKey[array.length];
+        for (int i = 0; i < keys.length; i++) keys[i] = comp.getSortKey(array[i]);
+
+        List<String> probes = new ArrayList<String>(probes());
+        probes.addAll(strings.subList(0, 200));
+
+        for (String probe : probes) {
+            int lower = 0;
+            while (lower < strings.size() && comp.compare(strings.get(lower), probe) < 0) lower++;
+            int upper = lower;
+            while (upper < strings.size() && comp.compare(strings.get(upper), probe) == 0) upper++;
+
+            assertThat(probe, NaturalSearch.lowerBound(strings, probe, comp), is(lower));
+            assertThat(probe, NaturalSearch.lowerBound(array, probe, comp), is(lower));
+            assertThat(probe, NaturalSearch.lowerBound(keys, probe, comp), is(lower));
+            assertThat(probe, NaturalSearch.upperBound(strings, probe, comp), is(upper));
+            assertThat(probe, NaturalSearch.upperBound(array, probe, comp), is(upper));
+            assertThat(probe, NaturalSearch.upperBound(keys, probe, comp), is(upper));
+        }
+    }
+
+    public void testRange() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = sortedStrings(comp);
+
+        List<String> expected = new ArrayList<String>();
+        for (String string : strings) {
+            if (comp.compare(string, "file 10") >= 0 && comp.compare(string, "file 20.5") < 0) expected.add(string);
+        }
+
+        assertThat(NaturalSearch.range(strings, "file 10", "file 20.5", comp), is(expected));
+        assertThat(NaturalSearch.range(strings.toArray(new String[0]), "file 10", "file 20.5", comp), is(expected));
+        assertThat(NaturalSearch.range(strings, "file 20.5", "file 10", comp).size(), is(0));
+
+        NaturalSortKey[] keys = new NaturalSortKey[strings.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = comp.getSortKey(strings.get(i));
+        List<String> keyRange = new ArrayList<String>();
+        for (NaturalSortKey key : NaturalSearch.range(keys, "file 10", "file 20.5", comp)) {
+            keyRange.add(key.getSource().toString());
+        }
+
+        assertThat(keyRange, is(expected));
+        assertThat(NaturalSearch.range(keys, "file 20.5", "file 10", comp).size(), is(0));
+    }
+
+    public void testSearchEdges() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+
+        // Empty input has every string at insertion point zero.
+        List<String> empty = new ArrayList<String>();
+        assertThat(NaturalSearch.binarySearch(empty, "a", comp), is(-1));
+        assertThat(NaturalSearch.binarySearch(new NaturalSortKey[0], "a", comp), is(-1));
+        assertThat(NaturalSearch.lowerBound(empty, "a", comp), is(0));
+        assertThat(NaturalSearch.upperBound(empty, "a", comp), is(0));
+        assertThat(NaturalSearch.range(empty, "a", "b", comp).size(), is(0));
+
+        // A run of strings which all compare equal, but differ, is bounded as a whole.
+        List<String> strings = Arrays.asList("a", "file 7", "file 07", "file 007", "z");
+        String[] array = strings.toArray(new String[0]);
+        NaturalSortKey[] keys = new NaturalSortKey[array.length];
+        for (int i = 0; i < keys.length; i++) keys[i] = comp.getSortKey(array[i]);
+
+        assertThat(NaturalSearch.lowerBound(strings, "file 0007", comp), is(1));
+        assertThat(NaturalSearch.upperBound(array, "file 0007", comp), is(4));
+        assertThat(NaturalSearch.lowerBound(keys, "file 0007", comp), is(1));
+        assertThat(NaturalSearch.upperBound(keys, "file 0007", comp), is(4));
+        int found = NaturalSearch.binarySearch(array, "file 0007", comp);
+        assertThat(found >= 1 && found < 4, is(true));
+        assertThat(NaturalSearch.range(strings, "file 7", "file 7", comp).size(), is(0));
+        assertThat(NaturalSearch.range(keys, "file 7", "z", comp).size(), is(3));
+
+        // Strings before the first and after the last element.
+        assertThat(NaturalSearch.binarySearch(strings, "", comp), is(-1));
+        assertThat(NaturalSearch.binarySearch(keys, "zz", comp), is(-6));
+        assertThat(NaturalSearch.lowerBound(array, "zz", comp), is(5));
+        assertThat(NaturalSearch.upperBound(strings, "z", comp), is(5));
+        assertThat(NaturalSearch.range(array, "", "zz", comp), is(strings));
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.devexed.naturalsort;
+
+import junit.framework.TestCase;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NaturalSortKeyTest extends TestCase {
+
+    private static final String alphabet = "aAbB \t-.,01234567890\u00e9\u0661";
+
+    private static String randomString(Random random) {
+        int length = random.nextInt(12);
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+
+        return text.toString();
+    }
+
+    private static int sign(int i) {
+        return i == 0 ? 0 : (i < 0) ? -1 : 1;
+    }
+
+    private static void assertKeysCompareLikeStrings(Locale locale) {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(locale);
+        Random random = new Random(locale.hashCode());
+
+        for (int i = 0; i < 20000; i++) {
+            String a = randomString(random);
+            String b = randomString(random);
+            int keyCompare = sign(comp.getSortKey(a).compareTo(comp.getSortKey(b)));
+            assertThat("\"" + a + "\" vs \"" + b + "\"", keyCompare, is(sign(comp.compare(a, b))));
+        }
+    }
+
+    public void testKeysCompareLikeStrings() {
+        assertKeysCompareLikeStrings(Locale.ENGLISH);
+        assertKeysCompareLikeStrings(Locale.GERMAN);
+        assertKeysCompareLikeStrings(Locale.FRENCH);
+    }
+
+    public void testNumberKeys() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        String[] ordered = {
+                "-1" + new String(new char[100]).replace('\0', '0'),
+                "-100", "-99.5", "-1", "-0.05", "0", "0.0001", "0.05", "0.5", "1", "1.05", "99.5", "100",
+                "1" + new String(new char[100]).replace('\0', '0')
+        };
+
+        for (int i = 0; i + 1 < ordered.length; i++) {
+            NaturalSortKey lower = comp.getSortKey(ordered[i]);
+            NaturalSortKey higher = comp.getSortKey(ordered[i + 1]);
+            assertTrue(ordered[i] + " < " + ordered[i + 1], lower.compareTo(higher) < 0);
+        }
+
+        assertThat(comp.getSortKey("file 007.50"), is(comp.getSortKey("file 7.5")));
+        assertThat(comp.getSortKey("-0"), is(comp.getSortKey("0.000")));
+    }
+
+}
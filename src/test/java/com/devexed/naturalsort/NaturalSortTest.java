@@ -0,0 +1,338 @@
+package com.devexed.naturalsort;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NaturalSortTest extends TestCase {
+
+    public void testParallelSort() {
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(50000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        NaturalSort.parallelSort(strings, comp);
+        assertThat(strings, is(expected));
+    }
+
+    public void testParallelSortArray() {
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(1000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        String[] array = strings.toArray(new String[0]);
+        NaturalSort.parallelSort(array, comp);
+        assertThat(array, is(expected.toArray(new String[0])));
+    }
+
+    public void testParallelSortDefaultLocale() {
+        // The comparator of the default locale is shared between calls rather than created for every sort.
+        List<String> strings = TestStrings.fileNames(1000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, NaturalOrderComparator.forLocale(Locale.getDefault()));
+
+        CacheStats before = NaturalOrderComparator.forLocaleStats();
+        String[] array = strings.toArray(new String[0]);
+        NaturalSort.parallelSort(array);
+        NaturalSort.parallelSort(strings);
+        CacheStats after = NaturalOrderComparator.forLocaleStats();
+
+        assertThat(array, is(expected.toArray(new String[0])));
+        assertThat(strings, is(expected));
+        assertThat(after.missCount(), is(before.missCount()));
+    }
+
+    public void testRadixSort() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(20000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        NaturalSort.radixSort(strings, comp);
+        assertThat(strings, is(expected));
+    }
+
+    public void testParallelRadixSort() {
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        List<String> strings = new ArrayList<String>();
+
+        // Long shared prefixes.
+        for (String string : TestStrings.fileNames(50000)) strings.add("invoice-2024-customer-export-" + string);
+
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        NaturalSort.parallelRadixSort(strings, comp);
+        assertThat(strings, is(expected));
+    }
+
+    public void testRadixSortBuckets() {
+        // Keys of the lowest and highest byte values, keys ending at every depth and equal keys, in ranges around the
+        // size below which buckets are insertion sorted and above which they are sorted in parallel.
+        byte[] values = { 0x00, 0x01, 0x7F, (byte) 0x80, (byte) 0xFE, (byte) 0xFF };
+        Random random = new Random(0);
+
+        for (int size : new int[] { 0, 1, 31, 32, 33, 64, 65, 1000, 20000 }) {
+            for (boolean parallel : new boolean[] { false, true }) {
+                NaturalSortKey[] keys = new NaturalSortKey[size];
+
+                for (int i = 0; i < size; i++) {
+                    byte[] bytes = new byte[random.nextInt(5)];
+                    for (int j = 0; j < bytes.length; j++) bytes[j] = values[random.nextInt(values.length)];
+                    keys[i] = new NaturalSortKey("key " + i, bytes);
+                }
+
+                NaturalSortKey[] expected = keys.clone();
+                Arrays.sort(expected);
+                MsdRadixSort.sort(keys, parallel);
+
+                for (int i = 0; i < size; i++) {
+                    assertThat(size + " " + parallel, keys[i].getSource(), is(expected[i].getSource()));
+                }
+            }
+        }
+    }
+
+    public void testRadixSortCommonPrefix() {
+        // Keys sharing all bytes up to where they end, including keys equal in full, keep their original order.
+        for (int size : new int[] { 32, 33, 1000 }) {
+            NaturalSortKey[] keys = new NaturalSortKey[size];
+            byte[] common = new byte[100];
+            Arrays.fill(common, (byte) 0xFF);
+
+            for (int i = 0; i < size; i++) {
+                keys[i] = new NaturalSortKey("key " + i, Arrays.copyOf(common, 100 - i % 3));
+            }
+
+            NaturalSortKey[] expected = keys.clone();
+            Arrays.sort(expected);
+            MsdRadixSort.sort(keys, false);
+
+            for (int i = 0; i < size; i++) assertThat(keys[i].getSource(), is(expected[i].getSource()));
+        }
+    }
+
+    public void testSortSlices() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(5000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        // Store all strings in one array of text, backwards so that slices are out of order to begin with.
+        StringBuilder text = new StringBuilder();
+        int[] starts = new int[strings.size()];
+        int[] ends = new int[strings.size()];
+
+        for (int i = strings.size() - 1; i >= 0; i--) {
+            starts[i] = text.length();
+            text.append(strings.get(i));
+            ends[i] = text.length();
+        }
+
+        char[] chars = text.toString().toCharArray();
+        NaturalSort.sort(chars, starts, ends, comp);
+
+        List<String> sorted = new ArrayList<String>();
+        for (int i = 0; i < starts.length; i++) sorted.add(new String(chars, starts[i], ends[i] - starts[i]));
+        assertThat(sorted, is(expected));
+    }
+
+    public void testSortUtf8Slices() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(5000);
+        for (int i = 0; i < strings.size(); i += 7) strings.set(i, "\u00e9t\u00e9 " + strings.get(i));
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        // Store the encoded strings in a direct buffer, like a memory mapped file, one per line.
+        byte[] encoded = join(strings, "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer bytes = ByteBuffer.allocateDirect(encoded.length);
+        bytes.put(encoded);
+        int[] starts = new int[strings.size()];
+        int[] ends = new int[strings.size()];
+
+        for (int i = 0, start = 0; i < strings.size(); i++) {
+            starts[i] = start;
+            ends[i] = start + strings.get(i).getBytes(StandardCharsets.UTF_8).length;
+            start = ends[i] + 1;
+        }
+
+        NaturalSort.sort(bytes, starts, ends, comp);
+
+        List<String> sorted = new ArrayList<String>();
+        for (int i = 0; i < starts.length; i++) {
+            byte[] line = new byte[ends[i] - starts[i]];
+            for (int j = 0; j < line.length; j++) line[j] = bytes.get(starts[i] + j);
+            sorted.add(new String(line, StandardCharsets.UTF_8));
+        }
+
+        assertThat(sorted, is(expected));
+    }
+
+    private static String join(List<String> strings, String separator) {
+        StringBuilder joined = new StringBuilder();
+
+        for (String string : strings) {
+            if (joined.length() > 0) joined.append(separator);
+            joined.append(string);
+        }
+
+        return joined.toString();
+    }
+
+    public void testTopK() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(20000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        assertThat(NaturalSort.topK(strings, 50, comp), is(expected.subList(0, 50)));
+        assertThat(NaturalSort.topK(strings, 0, comp), is(expected.subList(0, 0)));
+        assertThat(NaturalSort.topK(strings.subList(0, 10), 50, comp).size(), is(10));
+    }
+
+    public void testTopKCollector() {
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(50000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        assertThat(strings.parallelStream().collect(NaturalSort.toTopK(100, comp)), is(expected.subList(0, 100)));
+    }
+
+    public void testPartialSort() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(10000);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        NaturalSort.partialSort(strings, 200, 250, comp);
+        assertThat(strings.subList(200, 250), is(expected.subList(200, 250)));
+        Collections.sort(strings, comp);
+        assertThat(strings, is(expected));
+    }
+
+    public void testTopKTies() {
+        // Equal strings are selected in their original order, also across the boundary of the selection.
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.concurrent(Locale.ENGLISH);
+        List<String> strings = new ArrayList<String>();
+        String[] equal = {"file 7", "file 07", "file 007", "file  7", "file 0007"};
+        for (int i = 0; i < 2000; i++) strings.add(equal[i % equal.length] + (i % 3 == 0 ? "" : ".5"));
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        for (int k : new int[] { 0, 1, 4, 5, 6, 667, 668, 1999, 2000, 2001 }) {
+            List<String> selected = expected.subList(0, Math.min(k, expected.size()));
+            assertThat("k = " + k, NaturalSort.topK(strings, k, comp), is(selected));
+            assertThat("k = " + k, strings.parallelStream().collect(NaturalSort.toTopK(k, comp)), is(selected));
+        }
+
+        assertThat(NaturalSort.topK(new ArrayList<String>(), 10, comp).size(), is(0));
+
+        try {
+            NaturalSort.topK(strings, -1, comp);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    public void testPartialSortEdges() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = TestStrings.fileNames(500);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        // An empty range at the start leaves the list as it was.
+        List<String> unchanged = new ArrayList<String>(strings);
+        NaturalSort.partialSort(unchanged, 0, 0, comp);
+        assertThat(unchanged, is(strings));
+
+        // A range ending at the end of the list sorts the whole list.
+        List<String> sorted = new ArrayList<String>(strings);
+        NaturalSort.partialSort(sorted, 499, 500, comp);
+        assertThat(sorted, is(expected));
+
+        List<String> first = new ArrayList<String>(strings);
+        NaturalSort.partialSort(first, 0, 1, comp);
+        assertThat(first.get(0), is(expected.get(0)));
+
+        for (int[] range : new int[][] { { -1, 10 }, { 0, 501 }, { 10, 9 } }) {
+            try {
+                NaturalSort.partialSort(new ArrayList<String>(strings), range[0], range[1], comp);
+                fail();
+            } catch (IndexOutOfBoundsException e) {
+                // Expected.
+            }
+        }
+    }
+
+    public void testAbbreviatedSort() {
+        // Leading words make the prefixes differ, but many strings still share one.
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        Random random = new Random(0);
+        List<String> strings = new ArrayList<String>();
+
+        for (String string : TestStrings.fileNames(20000)) {
+            String word = "" + (char) ('a' + random.nextInt(26)) + (char) ('A' + random.nextInt(26));
+            strings.add(word + (random.nextBoolean() ? "  " : " ") + string);
+        }
+
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        NaturalSort.abbreviatedSort(strings, comp);
+        assertThat(strings, is(expected));
+    }
+
+    public void testAbbreviatedSortCommonPrefix() {
+        // Every prefix is equal, so the keys are sorted in full instead.
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        List<String> strings = new ArrayList<String>();
+        for (String string : TestStrings.fileNames(5000)) strings.add("customer export batch " + string);
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        String[] array = strings.toArray(new String[0]);
+        NaturalSort.abbreviatedSort(array, comp);
+        assertThat(array, is(expected.toArray(new String[0])));
+    }
+
+    public void testAbbreviatedSortPrefixTies() {
+        // Ordinal keys have one byte per ASCII character, so these keys tie at exactly the eight bytes of the prefix,
+        // including when a key is padded to eight bytes or when its text ends with the seventh or eighth byte.
+        NaturalOrderComparator<String> comp = NaturalOrderComparator.builder().ordinal(CaseFolding.NONE).build();
+        String[] ties = {
+                "abcdefgh", "abcdefgh1", "abcdefgh0", "abcdefgh-1", "abcdefghi", "abcdefgha", "abcdefghij",
+                "abcdefg", "abcdefg1", "abcdefg10", "abcdefg", "abcdefgi", "abcdefgh 1", "abcdefgh1a"
+        };
+        Random random = new Random(0);
+        List<String> strings = new ArrayList<String>();
+
+        // Short distinct strings keep enough prefixes distinct for the strings to be sorted by abbreviated keys.
+        for (int i = 0; i < 2000; i++) strings.add(Integer.toString(random.nextInt(1 << 20), 36));
+        for (int i = 0; i < 10; i++) Collections.addAll(strings, ties);
+        Collections.shuffle(strings, random);
+
+        for (String string : strings) assertThat(comp.getSortKeyPrefix(string), is(comp.getSortKey(string).prefix()));
+
+        List<String> expected = new ArrayList<String>(strings);
+        Collections.sort(expected, comp);
+
+        NaturalSort.abbreviatedSort(strings, comp);
+        assertThat(strings, is(expected));
+    }
+
+}
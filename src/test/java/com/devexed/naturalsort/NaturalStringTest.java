@@ -0,0 +1,57 @@
+package com.devexed.naturalsort;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class NaturalStringTest extends TestCase {
+
+    private static int sign(int i) {
+        return i == 0 ? 0 : (i < 0) ? -1 : 1;
+    }
+
+    public void testTreeMap() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        TreeMap<NaturalString, Integer> map = new TreeMap<NaturalString, Integer>();
+
+        for (String label : Arrays.asList("label 10", "label 2", "Label 1", "label 02", "label 1.5")) {
+            map.put(new NaturalString(label, comp), label.length());
+        }
+
+        List<String> keys = new ArrayList<String>();
+        for (NaturalString key : map.keySet()) keys.add(key.toString());
+
+        // "label 02" compares equal to "label 2" and replaces its value but not its key.
+        assertThat(keys, is(Arrays.asList("Label 1", "label 1.5", "label 2", "label 10")));
+        assertThat(map.get(new NaturalString("label 2", comp)), is(8));
+    }
+
+    public void testConsistentWithComparator() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        String alphabet = "aAb -.,0123456789";
+        Random random = new Random(0);
+
+        for (int i = 0; i < 10000; i++) {
+            StringBuilder a = new StringBuilder();
+            StringBuilder b = new StringBuilder();
+            for (int j = random.nextInt(8); j > 0; j--) a.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            for (int j = random.nextInt(8); j > 0; j--) b.append(alphabet.charAt(random.nextInt(alphabet.length())));
+
+            NaturalString naturalA = new NaturalString(a, comp);
+            NaturalString naturalB = new NaturalString(b, comp);
+            int expected = sign(comp.compare(a.toString(), b.toString()));
+            assertThat(a + " vs " + b, sign(naturalA.compareTo(naturalB)), is(expected));
+            assertThat(naturalA.equals(naturalB), is(expected == 0));
+            if (expected == 0) assertThat(naturalA.hashCode(), is(naturalB.hashCode()));
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.devexed.naturalsort;
+
+import junit.framework.TestCase;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PreparedKeyTest extends TestCase {
+
+    private static int sign(int i) {
+        return i == 0 ? 0 : (i < 0) ? -1 : 1;
+    }
+
+    public void testCompareTo() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        PreparedKey<String> key = comp.prepare("file 10.5 b");
+
+        assertThat(key.getSource(), is("file 10.5 b"));
+        assertThat(sign(key.compareTo("file 9 b")), is(1));
+        assertThat(sign(key.compareTo("File  10.50  B")), is(0));
+        assertThat(sign(key.compareTo("file 10.5 b 1")), is(-1));
+        assertThat(sign(key.compareTo("file 10.5")), is(1));
+        assertThat(sign(key.compareTo("file 100")), is(-1));
+        assertThat(sign(key.compareTo("file -100")), is(1));
+    }
+
+    public void testCompareAll() {
+        NaturalOrderComparator<String> comp = new NaturalOrderComparator<String>(Locale.ENGLISH);
+        String alphabet = "ab -.,0123456789";
+        Random random = new Random(0);
+        String[] strings = new String[10000];
+
+        for (int i = 0; i < strings.length; i++) {
+            StringBuilder string = new StringBuilder();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                string.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+
+            strings[i] = string.toString();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            PreparedKey<String> key = comp.prepare(strings[i]);
+            int[] results = new int[strings.length];
+            key.compareAll(strings, results);
+
+            for (int j = 0; j < strings.length; j++) {
+                assertThat(strings[i] + " vs " + strings[j],
+                        sign(results[j]), is(sign(comp.compare(strings[i], strings[j]))));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.devexed.naturalsort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Random strings shared by the tests, generated from a fixed seed so that failures reproduce.
+ */
+final class TestStrings {
+
+    private TestStrings() {
+    }
+
+    /**
+     * @return Strings shaped like file names, including strings which compare equal but differ, like "file 7" and
+     *         "file 007", to detect unstable sorting.
+     */
+    static List<String> fileNames(int count) {
+        String[] prefixes = {"file ", "File ", "file 0", "file 00", "img-", "v", ""};
+        Random random = new Random(count);
+        List<String> strings = new ArrayList<String>();
+
+        for (int i = 0; i < count; i++) {
+            strings.add(prefixes[random.nextInt(prefixes.length)] + random.nextInt(100) + "." + random.nextInt(10));
+        }
+
+        return strings;
+    }
+
+    /**
+     * @return Strings of up to nine characters picked from an alphabet.
+     */
+    static List<String> randomStrings(String alphabet, int count) {
+        Random random = new Random(0);
+        List<String> strings = new ArrayList<String>();
+
+        for (int i = 0; i < count; i++) {
+            StringBuilder string = new StringBuilder();
+            for (int j = random.nextInt(10); j > 0; j--) {
+                string.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            strings.add(string.toString());
+        }
+
+        return strings;
+    }
+
+}